@@ -0,0 +1,52 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nullpointerworks.core.input.KeyboardInput;
+import com.nullpointerworks.core.input.MouseInput;
+
+/**
+ * Measures the per-frame register update of the input devices.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputBenchmark
+{
+	private KeyboardInput keyboard = new KeyboardInput();
+	private MouseInput mouse = new MouseInput();
+	
+	@Benchmark
+	public KeyboardInput keyboardUpdate()
+	{
+		keyboard.update();
+		return keyboard;
+	}
+	
+	@Benchmark
+	public MouseInput mouseUpdate()
+	{
+		mouse.update();
+		return mouse;
+	}
+}
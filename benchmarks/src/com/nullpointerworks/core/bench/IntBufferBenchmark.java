@@ -0,0 +1,90 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nullpointerworks.core.buffer.IntBuffer;
+
+/**
+ * Measures the per-frame {@code IntBuffer} paths at common screen 
+ * resolutions.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntBufferBenchmark
+{
+	@Param({"1280x720", "1920x1080", "3840x2160"})
+	public String resolution;
+	
+	private IntBuffer buffer;
+	private int[] frame;
+	private int width;
+	private int height;
+	
+	@Setup
+	public void setup()
+	{
+		String[] wh = resolution.split("x");
+		width = Integer.parseInt(wh[0]);
+		height = Integer.parseInt(wh[1]);
+		buffer = new IntBuffer(width, height, 0xFF000000);
+		frame = new int[width*height];
+		for (int i=0; i<frame.length; i++) frame[i] = i;
+	}
+	
+	@Benchmark
+	public IntBuffer clear()
+	{
+		buffer.clear(0xFF102030);
+		return buffer;
+	}
+	
+	@Benchmark
+	public IntBuffer plotArray()
+	{
+		buffer.plot(frame);
+		return buffer;
+	}
+	
+	@Benchmark
+	public int grab()
+	{
+		int sum = 0;
+		for (int y=0; y<height; y++)
+		{
+			for (int x=0; x<width; x++)
+			{
+				sum += buffer.grab(x, y);
+			}
+		}
+		return sum;
+	}
+	
+	@Benchmark
+	public IntBuffer copy()
+	{
+		return buffer.copy();
+	}
+}
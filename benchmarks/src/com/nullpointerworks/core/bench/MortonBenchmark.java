@@ -0,0 +1,117 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nullpointerworks.core.buffer.IntBuffer;
+import com.nullpointerworks.core.buffer.MortonIntBuffer;
+
+/**
+ * Compares texture reads from a row-major {@code IntBuffer} with reads 
+ * from a {@code MortonIntBuffer}, walking down columns and along a 
+ * rotated line pattern, the access patterns of a rotated or perspective 
+ * textured surface.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MortonBenchmark
+{
+	private static final int SIZE = 2048;
+	private IntBuffer linear;
+	private MortonIntBuffer morton;
+	
+	@Setup
+	public void setup()
+	{
+		linear = new IntBuffer(SIZE, SIZE);
+		for (int i=0; i<SIZE*SIZE; i++) linear.plot(i, i);
+		morton = new MortonIntBuffer(linear);
+	}
+	
+	@Benchmark
+	public int linearColumns()
+	{
+		int sum = 0;
+		for (int x=0; x<SIZE; x++)
+			for (int y=0; y<SIZE; y++) sum += linear.grab(x, y);
+		return sum;
+	}
+	
+	@Benchmark
+	public int mortonColumns()
+	{
+		int sum = 0;
+		for (int x=0; x<SIZE; x++)
+			for (int y=0; y<SIZE; y++) sum += morton.grab(x, y);
+		return sum;
+	}
+	
+	@Benchmark
+	public int linearRotated()
+	{
+		int sum = 0;
+		for (int j=0; j<SIZE; j++)
+		{
+			float v0 = j / (float)SIZE;
+			for (int i=0; i<SIZE; i++)
+			{
+				float t = i / (float)SIZE;
+				sum += linear.grab(rotU(t, v0), rotV(t, v0), 1f);
+			}
+		}
+		return sum;
+	}
+	
+	@Benchmark
+	public int mortonRotated()
+	{
+		int sum = 0;
+		for (int j=0; j<SIZE; j++)
+		{
+			float v0 = j / (float)SIZE;
+			for (int i=0; i<SIZE; i++)
+			{
+				float t = i / (float)SIZE;
+				sum += morton.grab(rotU(t, v0), rotV(t, v0), 1f);
+			}
+		}
+		return sum;
+	}
+	
+	/*
+	 * a screen row maps to a steep line through texture space, 
+	 * wrapped to [0,1)
+	 */
+	private static float rotU(float t, float v)
+	{
+		float u = 0.25f*t + v;
+		return u - (int)u;
+	}
+	
+	private static float rotV(float t, float v)
+	{
+		float w = 0.97f*t + 0.25f*v;
+		return w - (int)w;
+	}
+}
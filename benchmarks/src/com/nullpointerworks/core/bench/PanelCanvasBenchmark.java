@@ -0,0 +1,71 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nullpointerworks.core.PanelCanvas;
+import com.nullpointerworks.core.buffer.IntBuffer;
+
+/**
+ * Measures presenting a frame on a {@code PanelCanvas}, both by copying 
+ * an array in and by presenting a wrapped buffer in place. Run headless, 
+ * so only the raster side of the swap is measured.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PanelCanvasBenchmark
+{
+	@Param({"1280x720", "1920x1080", "3840x2160"})
+	public String resolution;
+	
+	private PanelCanvas copying;
+	private PanelCanvas wrapping;
+	private int[] frame;
+	
+	@Setup
+	public void setup()
+	{
+		String[] wh = resolution.split("x");
+		int width = Integer.parseInt(wh[0]);
+		int height = Integer.parseInt(wh[1]);
+		copying = new PanelCanvas(width, height);
+		wrapping = new PanelCanvas(new IntBuffer(width, height));
+		frame = new int[width*height];
+	}
+	
+	@Benchmark
+	public PanelCanvas swapArray()
+	{
+		copying.swap(frame);
+		return copying;
+	}
+	
+	@Benchmark
+	public PanelCanvas swapInPlace()
+	{
+		wrapping.swap();
+		return wrapping;
+	}
+}
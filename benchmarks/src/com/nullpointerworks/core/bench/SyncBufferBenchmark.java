@@ -0,0 +1,121 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nullpointerworks.core.buffer.IntBuffer;
+import com.nullpointerworks.core.buffer.concurrency.StripedIntBuffer;
+import com.nullpointerworks.core.buffer.concurrency.SyncIntBuffer;
+
+/**
+ * Measures the thread safe buffers while four threads plot and grab 
+ * rows of the same buffer. Each thread works on its own rows, so the 
+ * difference between the buffers is the cost of their locking.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class SyncBufferBenchmark
+{
+	private static final int WIDTH = 1920;
+	private static final int HEIGHT = 1088;
+	
+	@State(Scope.Benchmark)
+	public static class Buffers
+	{
+		SyncIntBuffer sync;
+		StripedIntBuffer striped;
+		
+		@Setup
+		public void setup()
+		{
+			sync = new SyncIntBuffer(WIDTH, HEIGHT);
+			striped = new StripedIntBuffer(WIDTH, HEIGHT);
+		}
+	}
+	
+	@State(Scope.Thread)
+	public static class Cursor
+	{
+		private static int threads = 0;
+		int row;
+		int first;
+		
+		@Setup
+		public void setup()
+		{
+			synchronized (Cursor.class)
+			{
+				first = (threads++ & 3) * (HEIGHT/4);
+			}
+			row = first;
+		}
+		
+		int next()
+		{
+			if (++row == first + HEIGHT/4) row = first;
+			return row;
+		}
+	}
+	
+	@Benchmark
+	public int syncRow(Buffers b, Cursor c)
+	{
+		return row(b.sync, c.next());
+	}
+	
+	@Benchmark
+	public int stripedRow(Buffers b, Cursor c)
+	{
+		return row(b.striped, c.next());
+	}
+	
+	@Benchmark
+	public SyncIntBuffer syncFillRect(Buffers b, Cursor c)
+	{
+		b.sync.fillRect(0, c.next(), WIDTH, 1, 0xFF00FF00);
+		return b.sync;
+	}
+	
+	@Benchmark
+	public StripedIntBuffer stripedFillRect(Buffers b, Cursor c)
+	{
+		b.striped.fillRect(0, c.next(), WIDTH, 1, 0xFF00FF00);
+		return b.striped;
+	}
+	
+	/*
+	 * plot and grab every element of a row
+	 */
+	private static int row(IntBuffer buffer, int y)
+	{
+		int sum = 0;
+		for (int x=0; x<WIDTH; x++)
+		{
+			buffer.plot(x, y, x);
+			sum += buffer.grab(x, y);
+		}
+		return sum;
+	}
+}
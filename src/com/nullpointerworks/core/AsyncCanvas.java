@@ -0,0 +1,224 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core;
+
+import java.awt.Component;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * An implementation of {@code DrawCanvas} that presents frames on a
+ * dedicated thread. Swapping copies the frame into a small ring of
+ * pre-allocated frame buffers and returns immediately, while the present
+ * thread hands the queued frames to the wrapped canvas. This decouples
+ * the simulation thread from the time it takes to display a frame.
+ * <pre>
+ * window.setDrawCanvas( new AsyncCanvas(new PanelCanvas(w,h), 3, PresentPolicy.DROP_OLDEST) );
+ * </pre>
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ * @see PresentPolicy
+ */
+public class AsyncCanvas implements DrawCanvas
+{
+	/*
+	 * queued in place of a frame to present the wrapped canvas as-is
+	 */
+	private static final int[] PRESENT = new int[0];
+	
+	/*
+	 * placed in the free queue when the present thread stops, to wake 
+	 * up swaps that are waiting for a frame buffer
+	 */
+	private static final int[] STOPPED = new int[0];
+
+	private final DrawCanvas canvas;
+	private final PresentPolicy policy;
+	private final ArrayBlockingQueue<int[]> free;
+	private final ArrayBlockingQueue<int[]> ready;
+	private final Thread presenter;
+	private final int length;
+	private final int frames;
+	private volatile boolean running = true;
+
+	/**
+	 * Wraps the given canvas with a triple buffered frame queue
+	 * that drops the oldest frame when the display falls behind.
+	 * @param canvas the canvas to present the frames on
+	 * @since 1.1.0
+	 */
+	public AsyncCanvas(DrawCanvas canvas)
+	{
+		this(canvas, 3, PresentPolicy.DROP_OLDEST);
+	}
+
+	/**
+	 * Wraps the given canvas with a frame queue of the given size.
+	 * @param canvas the canvas to present the frames on
+	 * @param frames the amount of pre-allocated frame buffers, at least 2
+	 * @param policy what to do when all frame buffers are queued
+	 * @since 1.1.0
+	 */
+	public AsyncCanvas(DrawCanvas canvas, int frames, PresentPolicy policy)
+	{
+		if (frames < 2) frames = 2;
+		this.canvas = canvas;
+		this.policy = policy;
+		this.frames = frames;
+		length = canvas.width() * canvas.height();
+		free = new ArrayBlockingQueue<int[]>(frames);
+		ready = new ArrayBlockingQueue<int[]>(frames*2);
+		for (int i=0; i<frames; i++) free.add(new int[length]);
+
+		presenter = new Thread(this::present, "libnpw-present");
+		presenter.setDaemon(true);
+		presenter.start();
+	}
+
+	/**
+	 * @override com.nullpointerworks.core.DrawCanvas
+	 */
+	@Override
+	public int width()
+	{
+		return canvas.width();
+	}
+
+	/**
+	 * @override com.nullpointerworks.core.DrawCanvas
+	 */
+	@Override
+	public int height()
+	{
+		return canvas.height();
+	}
+
+	/**
+	 * @override com.nullpointerworks.core.DrawCanvas
+	 */
+	@Override
+	public Component component()
+	{
+		return canvas.component();
+	}
+
+	/**
+	 * Copies the given pixels into a free frame buffer and queues
+	 * it for presentation. Depending on the {@code PresentPolicy},
+	 * this method either waits for a frame buffer to become free,
+	 * or reuses the oldest queued frame. When dropping frames and no
+	 * buffer is free or queued, the given frame is dropped instead.
+	 * @override com.nullpointerworks.core.DrawCanvas
+	 */
+	@Override
+	public void swap(int[] pixels)
+	{
+		if (!running) return;
+		if (pixels.length != length) return;
+		int[] frame = obtain();
+		if (frame == null) return;
+		System.arraycopy(pixels, 0, frame, 0, length);
+		ready.offer(frame);
+	}
+
+	/**
+	 * Queues a presentation of the wrapped canvas' current content.
+	 * @override com.nullpointerworks.core.DrawCanvas
+	 */
+	@Override
+	public void swap()
+	{
+		if (!running) return;
+		if (ready.remainingCapacity() > frames) ready.offer(PRESENT);
+	}
+
+	/**
+	 * Returns the canvas the frames are presented on.
+	 * @return the canvas the frames are presented on
+	 * @since 1.1.0
+	 */
+	public DrawCanvas getDrawCanvas()
+	{
+		return canvas;
+	}
+
+	/**
+	 * Stops the present thread. Frames that are still queued are
+	 * discarded and further swaps are ignored. A swap that is waiting
+	 * for a free frame buffer returns without queuing its frame.
+	 * @since 1.1.0
+	 */
+	public void dispose()
+	{
+		running = false;
+		presenter.interrupt();
+	}
+
+	/*
+	 * take a frame buffer to copy the next frame into
+	 */
+	private int[] obtain()
+	{
+		try
+		{
+			int[] frame = (policy == PresentPolicy.BLOCK)? free.take(): free.poll();
+			if (frame == STOPPED)
+			{
+				free.offer(STOPPED);
+				return null;
+			}
+			if (policy == PresentPolicy.BLOCK) return frame;
+			
+			while (frame == null || frame == PRESENT)
+			{
+				frame = ready.poll();
+				if (frame == null) return free.poll();
+			}
+			return frame;
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	/*
+	 * present thread loop. The frame buffer is returned even if the 
+	 * wrapped canvas throws, and waiting swaps are woken on any exit
+	 */
+	private void present()
+	{
+		try
+		{
+			while (running)
+			{
+				int[] frame = ready.take();
+				if (frame == PRESENT)
+				{
+					canvas.swap();
+					continue;
+				}
+				try
+				{
+					canvas.swap(frame);
+				}
+				finally
+				{
+					free.offer(frame);
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			// stopped by dispose()
+		}
+		finally
+		{
+			running = false;
+			free.offer(STOPPED);
+		}
+	}
+}
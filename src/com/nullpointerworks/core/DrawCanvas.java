@@ -6,6 +6,7 @@
 package com.nullpointerworks.core;
 
 import java.awt.Component;
+import java.awt.Rectangle;
 
 /**
  * A rendering interface that provides a handle for a Window to display.
@@ -35,6 +36,24 @@ public interface DrawCanvas
 	 */
 	void swap(int[] pixels);
 	
+	/**
+	 * Displays the content currently held by the drawing canvas without copying any pixels. Use this to present frames that were rendered directly into the canvas' own render target, or into a caller-owned buffer the canvas wraps. Canvases that do not hold a render target of their own ignore this call.
+	 * @since 1.1.0
+	 */
+	default void swap()
+	{}
+	
+	/**
+	 * Swap only the given regions of the provided array with the content held by the drawing canvas. Pixels outside of the regions are left as they are. Canvases that cannot update partially swap the entire array instead.
+	 * @param pixels an integer array for the same size as the rendering surface
+	 * @param regions the rectangles of the array that have changed
+	 * @since 1.1.0
+	 */
+	default void swap(int[] pixels, Rectangle[] regions)
+	{
+		swap(pixels);
+	}
+	
 	/**
 	 * Returns a java.awt.Component to which the canvas is drawing on. It can be added as a UI element to the {@code JFrame} in the window.
 	 * @return the component for the window to display
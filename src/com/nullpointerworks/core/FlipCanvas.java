@@ -0,0 +1,187 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core;
+
+import java.awt.Canvas;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * A page flipping implementation of {@code DrawCanvas}. It extends a
+ * {@code java.awt.Canvas} and presents frames through a double or triple
+ * buffered {@code BufferStrategy}. Frames are drawn onto a back buffer
+ * and made visible by flipping pages, so the render loop never waits
+ * on Swing painting and frames do not tear.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public class FlipCanvas extends Canvas implements DrawCanvas
+{
+	private static final long serialVersionUID = -3051418170446233795L;
+	private int width = 0;
+	private int height = 0;
+	private int buffers = 2;
+	private BufferStrategy strategy;
+	private BufferedImage bi;
+	private Rectangle bounds;
+	private int[] pixels;
+
+	/**
+	 * Creates a double buffered drawing surface of the given dimensions. It will accepts colors as integers in ARGB format at 8 bit depth.
+	 * @param width the width of the drawing surface
+	 * @param height the height of the drawing surface
+	 * @since 1.1.0
+	 */
+	public FlipCanvas(int width, int height)
+	{
+		this(width, height, 2);
+	}
+
+	/**
+	 * Creates a drawing surface of the given dimensions with the given amount of pages. Use 2 for double buffering and 3 for triple buffering. It will accepts colors as integers in ARGB format at 8 bit depth.
+	 * @param width the width of the drawing surface
+	 * @param height the height of the drawing surface
+	 * @param buffers the amount of pages to flip between, 2 or 3
+	 * @since 1.1.0
+	 */
+	public FlipCanvas(int width, int height, int buffers)
+	{
+		this.width=width;
+		this.height=height;
+		this.buffers=(buffers<2)?2:(buffers>3)?3:buffers;
+		bounds = new Rectangle(0, 0, width, height);
+		setSize(width, height);
+		setPreferredSize(getSize());
+		setMaximumSize(getSize());
+		setMinimumSize(getSize());
+		setIgnoreRepaint(true);
+
+		bi = new BufferedImage(width,height,BufferedImage.TYPE_INT_RGB);
+		pixels = ((DataBufferInt)bi.getRaster().getDataBuffer()).getData();
+	}
+
+	/**
+	 * @override com.nullpointerworks.core.DrawCanvas
+	 */
+	@Override
+	public int width()
+	{
+		return width;
+	}
+
+	/**
+	 * @override com.nullpointerworks.core.DrawCanvas
+	 */
+	@Override
+	public int height()
+	{
+		return height;
+	}
+
+	/**
+	 * @override com.nullpointerworks.core.DrawCanvas
+	 */
+	@Override
+	public Component component()
+	{
+		return this;
+	}
+
+	/**
+	 * @override com.nullpointerworks.core.DrawCanvas
+	 */
+	@Override
+	public void swap(int[] pix)
+	{
+		if (pix.length != pixels.length) return;
+		System.arraycopy(pix, 0, pixels, 0, pixels.length);
+		swap();
+	}
+
+	/**
+	 * Copies only the given regions into the canvas. The back buffers of a page flipping 
+	 * canvas hold older frames, so the entire surface is still flipped.
+	 * @override com.nullpointerworks.core.DrawCanvas
+	 */
+	@Override
+	public void swap(int[] pix, Rectangle[] regions)
+	{
+		if (pix.length != pixels.length) return;
+		if (pix != pixels)
+		{
+			for (Rectangle r : regions)
+			{
+				Rectangle c = r.intersection(bounds);
+				if (c.isEmpty()) continue;
+				for (int y=c.y, e=c.y+c.height; y<e; y++)
+				{
+					int i = c.x + y*width;
+					System.arraycopy(pix, i, pixels, i, c.width);
+				}
+			}
+		}
+		swap();
+	}
+
+	/**
+	 * @override com.nullpointerworks.core.DrawCanvas
+	 */
+	@Override
+	public void swap()
+	{
+		BufferStrategy bs = getStrategy();
+		if (bs == null) return;
+		do
+		{
+			do
+			{
+				Graphics g = bs.getDrawGraphics();
+				g.drawImage(bi, 0, 0, width, height, null);
+				g.dispose();
+			}
+			while (bs.contentsRestored());
+			bs.show();
+		}
+		while (bs.contentsLost());
+	}
+
+	/**
+	 * Returns the integer array the canvas presents from. Pixels written to this array are displayed on the next call to {@code swap()}, which makes it usable as a render target without any copying.
+	 * @return the integer array the canvas presents from
+	 * @since 1.1.0
+	 */
+	public int[] content()
+	{
+		return pixels;
+	}
+
+	/**
+	 * @override java.awt.Component
+	 */
+	@Override
+	public void removeNotify()
+	{
+		strategy = null;
+		super.removeNotify();
+	}
+
+	/*
+	 * The buffer strategy can only be created once the canvas is
+	 * displayable. It's created on the first swap after that.
+	 */
+	private BufferStrategy getStrategy()
+	{
+		if (strategy != null) return strategy;
+		if (!isDisplayable()) return null;
+		createBufferStrategy(buffers);
+		strategy = getBufferStrategy();
+		return strategy;
+	}
+}
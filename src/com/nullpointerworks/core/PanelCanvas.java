@@ -7,11 +7,20 @@ package com.nullpointerworks.core;
 
 import java.awt.Component;
 import java.awt.Graphics;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferUShort;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
 
 import javax.swing.JPanel;
 
+import com.nullpointerworks.core.buffer.IntBuffer;
+import com.nullpointerworks.core.buffer.PixelFormat;
+import com.nullpointerworks.core.buffer.ShortBuffer;
+
 /**
  * Contains a {@code BufferedImage} as a basic rendering surface. 
  * This implementation of {@code DrawCanvas} extends a {@code JPanel} 
@@ -25,7 +34,11 @@ public class PanelCanvas extends JPanel implements DrawCanvas
 	private int width = 0;
 	private int height = 0;
 	private BufferedImage bi;
+	private Rectangle bounds;
 	private int[] pixels;
+	private short[] words;
+	private int offset = 0;
+	private int stride = 0;
 	
 	/**
 	 * Creates a drawing surface of the given dimensions. It will accepts colors as integers in ARGB format at 8 bit depth.
@@ -35,17 +48,39 @@ public class PanelCanvas extends JPanel implements DrawCanvas
 	 */
 	public PanelCanvas(int width, int height) 
 	{
-		this.width=width;
-		this.height=height;
-		setSize(width, height);
-		setPreferredSize(getSize());
-		setMaximumSize(getSize());
-		setMinimumSize(getSize());
-		
+		setDimensions(width, height);
 		bi = new BufferedImage(width,height,BufferedImage.TYPE_INT_RGB);
 		pixels = getContent(bi);
 	}
 	
+	/**
+	 * Creates a drawing surface that displays the content of the given buffer directly. No pixels are copied when presenting a frame. Render into the buffer and call {@code swap()} to display it. A view displays only its own rectangle of the shared array. Colors are read as integers in ARGB format at 8 bit depth.
+	 * @param buffer the caller-owned buffer to display
+	 * @since 1.1.0
+	 */
+	public PanelCanvas(IntBuffer buffer) 
+	{
+		setDimensions(buffer.getWidth(), buffer.getHeight());
+		offset = buffer.getOffset();
+		stride = buffer.getStride();
+		pixels = buffer.content();
+		bi = wrap(pixels, width, height);
+	}
+	
+	/**
+	 * Creates a drawing surface that displays the content of the given buffer directly, as RGB565 colors at 16 bit depth. No pixels are copied when presenting a frame, and half the memory of an ARGB surface is read. Render into the buffer and call {@code swap()} to display it. Frames swapped in as ARGB integers are converted to RGB565.
+	 * @param buffer the caller-owned buffer to display
+	 * @since 1.1.0
+	 */
+	public PanelCanvas(ShortBuffer buffer) 
+	{
+		setDimensions(buffer.getWidth(), buffer.getHeight());
+		offset = buffer.getOffset();
+		stride = buffer.getStride();
+		words = buffer.content();
+		bi = wrap(words, width, height);
+	}
+	
 	/**
 	 * @override com.nullpointerworks.core.DrawCanvas
 	 */
@@ -79,13 +114,73 @@ public class PanelCanvas extends JPanel implements DrawCanvas
 	@Override
 	public void swap(int[] pix)
 	{
-		if (pix.length != pixels.length) return;
-		int l=pixels.length-1;
-		for (;l>=0;l--)
+		if (pix == pixels) 
 		{
-			pixels[l] = pix[l];
+			swap();
+			return;
 		}
-		paint(this.getGraphics());
+		if (pix.length != width*height) return;
+		if (stride == width)
+		{
+			copyRow(pix, 0, offset, pix.length);
+		}
+		else
+		{
+			for (int y=0; y<height; y++)
+			{
+				copyRow(pix, y*width, offset + y*stride, width);
+			}
+		}
+		swap();
+	}
+	
+	/**
+	 * @override com.nullpointerworks.core.DrawCanvas
+	 */
+	@Override
+	public void swap(int[] pix, Rectangle[] regions)
+	{
+		if (pix != pixels && pix.length != width*height) return;
+		Graphics g = this.getGraphics();
+		for (Rectangle r : regions)
+		{
+			Rectangle c = r.intersection(bounds);
+			if (c.isEmpty()) continue;
+			if (pix != pixels)
+			{
+				for (int y=c.y, e=c.y+c.height; y<e; y++)
+				{
+					copyRow(pix, c.x + y*width, offset + c.x + y*stride, c.width);
+				}
+			}
+			if (g == null) continue;
+			int x2 = c.x + c.width;
+			int y2 = c.y + c.height;
+			g.drawImage(bi, c.x, c.y, x2, y2, c.x, c.y, x2, y2, null);
+		}
+		if (g != null) g.dispose();
+	}
+	
+	/**
+	 * @override com.nullpointerworks.core.DrawCanvas
+	 */
+	@Override
+	public void swap()
+	{
+		Graphics g = this.getGraphics();
+		if (g == null) return;
+		paint(g);
+		g.dispose();
+	}
+	
+	/**
+	 * Returns the integer array the canvas displays from. Pixels written to this array are displayed on the next call to {@code swap()}, which makes it usable as a render target without any copying. Returns {@code null} if the canvas displays a {@code ShortBuffer}.
+	 * @return the integer array the canvas displays from
+	 * @since 1.1.0
+	 */
+	public int[] content()
+	{
+		return pixels;
 	}
 	
 	/**
@@ -97,6 +192,56 @@ public class PanelCanvas extends JPanel implements DrawCanvas
 		g.drawImage(bi, 0, 0, width, height, null);
 	}
 	
+	/*
+	 * set the fixed size of the panel
+	 */
+	private void setDimensions(int width, int height)
+	{
+		this.width=width;
+		this.height=height;
+		this.stride=width;
+		bounds = new Rectangle(0, 0, width, height);
+		setSize(width, height);
+		setPreferredSize(getSize());
+		setMaximumSize(getSize());
+		setMinimumSize(getSize());
+	}
+	
+	/*
+	 * copy a run of ARGB pixels onto the displayed array, converting them if it holds RGB565
+	 */
+	private void copyRow(int[] pix, int from, int to, int length)
+	{
+		if (words != null)
+		{
+			PixelFormat.toRGB565(pix, from, words, to, length);
+			return;
+		}
+		System.arraycopy(pix, from, pixels, to, length);
+	}
+	
+	/*
+	 * Returns an AWT BufferedImage that uses the given short array as its RGB565 raster, at the offset and row stride of the canvas
+	 */
+	private BufferedImage wrap(short[] words, int width, int height)
+	{
+		DirectColorModel cm = new DirectColorModel(16, 0xF800, 0x07E0, 0x001F);
+		DataBufferUShort db = new DataBufferUShort(words, words.length-offset, offset);
+		WritableRaster wr = Raster.createPackedRaster(db, width, height, stride, cm.getMasks(), null);
+		return new BufferedImage(cm, wr, false, null);
+	}
+	
+	/*
+	 * Returns an AWT BufferedImage that uses the given integer array as its raster, at the offset and row stride of the canvas
+	 */
+	private BufferedImage wrap(int[] pixels, int width, int height)
+	{
+		DirectColorModel cm = new DirectColorModel(24, 0x00FF0000, 0x0000FF00, 0x000000FF);
+		DataBufferInt db = new DataBufferInt(pixels, pixels.length-offset, offset);
+		WritableRaster wr = Raster.createPackedRaster(db, width, height, stride, cm.getMasks(), null);
+		return new BufferedImage(cm, wr, false, null);
+	}
+	
 	/*
 	 * Returns the integer array content form the given AWT BufferedImage
 	 */
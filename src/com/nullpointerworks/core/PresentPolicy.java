@@ -0,0 +1,33 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core;
+
+/**
+ * This enumeration contains the policies an {@code AsyncCanvas} can 
+ * apply when all of its frame buffers are waiting to be presented. 
+ * Items include; BLOCK and DROP_OLDEST.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public enum PresentPolicy
+{
+	/**
+	 * Make the swapping thread wait until the present thread 
+	 * has displayed a frame and its buffer becomes available. 
+	 * No frames are skipped.
+	 * @since 1.1.0
+	 */
+	BLOCK,
+	/**
+	 * Discard the oldest frame that has not been presented yet 
+	 * and reuse its buffer. The swapping thread never waits, 
+	 * which keeps simulation throughput independent of the 
+	 * display. If no frame is free or queued, because the 
+	 * others are being presented, the new frame is dropped.
+	 * @since 1.1.0
+	 */
+	DROP_OLDEST
+}
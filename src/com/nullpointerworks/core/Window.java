@@ -163,6 +163,36 @@ public class Window
 		canvas.swap(pixels);
 	}
 	
+	/**
+	 * Display the content currently held by the drawing canvas 
+	 * without copying any pixels. Use this together with a 
+	 * {@code PanelCanvas} that wraps a caller-owned {@code IntBuffer}, 
+	 * or one that is rendered to through its {@code content()} 
+	 * array, to present frames at zero copy cost.
+	 * @since 1.1.0
+	 * @see PanelCanvas
+	 */
+	public void swap()
+	{
+		canvas.swap();
+	}
+	
+	/**
+	 * Swap only the given regions of the array to the display 
+	 * buffer. It's up to the user to make sure that the length 
+	 * of the array matches the area of the display. Use this 
+	 * together with a {@code DirtyIntBuffer} to only copy and 
+	 * repaint the parts of a frame that have changed.
+	 * @param pixels - the array of integers that represent colors
+	 * @param regions - the rectangles of the array that have changed
+	 * @since 1.1.0
+	 * @see com.nullpointerworks.core.buffer.DirtyIntBuffer
+	 */
+	public void swap(int[] pixels, Rectangle[] regions)
+	{
+		canvas.swap(pixels, regions);
+	}
+	
 	/**
 	 * Delegate to display the internal {@code JFrame} object. Set 
 	 * true to make the window appear, false to hide it.
@@ -196,9 +226,15 @@ public class Window
 	 * @since 1.0.0
 	 * @see DrawCanvas
 	 * @see PanelCanvas
+	 * @see FlipCanvas
+	 * @see AsyncCanvas
 	 */
 	public void setDrawCanvas(DrawCanvas canvas)
 	{
+		if (this.canvas!=null && this.canvas!=canvas && jf_frame!=null)
+		{
+			jf_frame.remove(this.canvas.component());
+		}
 		if (canvas!=null)
 		{
 			canvas.component().setEnabled(false);
@@ -457,7 +493,10 @@ public class Window
 		BufferedImage bi = new BufferedImage(w,h,BufferedImage.TYPE_INT_ARGB);
 		int[] px = ((DataBufferInt)bi.getRaster().getDataBuffer()).getData();
 		int[] sc = ib.content();
-		for (int l = w*h - 1; l>=0; l--) px[l] = sc[l];
+		for (int y=0; y<h; y++)
+		{
+			System.arraycopy(sc, ib.index(0,y), px, y*w, w);
+		}
 		return bi;
 	}
 	
@@ -7,6 +7,12 @@ package com.nullpointerworks.core.buffer;
 
 /**
  * Buffer object abstraction for all libnpw-core buffers.
+ * <p>
+ * The element at coordinates (x,y) is stored in the content array at 
+ * {@code offset + x + y*stride}. A buffer owns its array with an offset
+ * of 0 and a stride equal to its width, unless it's a view onto the
+ * array of another buffer, see {@code index(int, int)}, or its rows
+ * are padded, see {@code RowLayout}.
  * @author Michiel Drost - Nullpointer Works
  * @since 1.0.0
  */
@@ -15,18 +21,112 @@ abstract class AbstractBuffer<B>
 	protected int width = 0;
 	protected int height = 0;
 	protected int length = 0;
+	protected int offset = 0;
+	protected int stride = 0;
+	protected boolean view = false;
+	
+	/*
+	 * set by a buffer pool while the buffer is handed out
+	 */
+	Object owner;
 	
 	/**
 	 * Sets the dimensions and area of the buffer. 
 	 * @param width - the width of the buffer
 	 * @param height - the height of the buffer
+	 * @throws ArithmeticException when the area does not fit in 
+	 * an {@code int}. Use a mapped buffer for larger areas
 	 * @since 1.0.0
 	 */
 	protected void setBuffer(int width, int height)
 	{
 		this.width=width;
 		this.height=height;
-		length=width*height;
+		length=Math.multiplyExact(width, height);
+		offset=0;
+		stride=width;
+		view=false;
+	}
+
+	/**
+	 * Sets the dimensions and area of the buffer, with each row
+	 * of the content array taking the given amount of elements.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @param stride - the row stride, at least the width
+	 * @since 1.1.0
+	 */
+	protected void setBuffer(int width, int height, int stride)
+	{
+		setBuffer(width,height);
+		this.stride=stride;
+	}
+
+	/**
+	 * Makes this buffer a view onto the content array of the given 
+	 * buffer, with its top left corner at the given coordinates of 
+	 * the parent. The dimensions of this buffer must already be set.
+	 * @param parent - the buffer whose content array is shared
+	 * @param x - the left side of the view in the parent
+	 * @param y - the top side of the view in the parent
+	 * @since 1.1.0
+	 */
+	protected void setView(AbstractBuffer<?> parent, int x, int y)
+	{
+		offset=parent.offset + x + y*parent.stride;
+		stride=parent.stride;
+		view=true;
+	}
+	
+	/**
+	 * Returns the index in the content array of the value at 
+	 * the given coordinates. Index based methods, like 
+	 * {@code plot(int, value)} and {@code grab(int)}, take this 
+	 * index.
+	 * @param x - the location along the width of the buffer
+	 * @param y - the location along the height of the buffer
+	 * @return the index in the content array
+	 * @since 1.1.0
+	 */
+	public int index(int x, int y)
+	{
+		return offset + x + y*stride;
+	}
+	
+	/**
+	 * Returns the index in the content array of the first value 
+	 * of the buffer.
+	 * @return the index of the first value
+	 * @since 1.1.0
+	 */
+    public int getOffset()
+    {return offset;}
+    
+	/**
+	 * Returns the distance in the content array from one row of 
+	 * the buffer to the next.
+	 * @return the row stride of the buffer
+	 * @since 1.1.0
+	 */
+    public int getStride()
+    {return stride;}
+    
+	/**
+	 * Returns true if this buffer is a view onto the content 
+	 * array of another buffer.
+	 * @return true if this buffer is a view
+	 * @since 1.1.0
+	 */
+    public boolean isView()
+    {return view;}
+    
+	/*
+	 * true if the rows are stored back to back, so the whole 
+	 * buffer is a single run of the content array
+	 */
+	boolean isPacked()
+	{
+		return stride == width;
 	}
 	
 	/**
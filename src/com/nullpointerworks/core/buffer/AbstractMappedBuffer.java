@@ -0,0 +1,181 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Buffer object abstraction for all libnpw-core buffers that are backed 
+ * by a memory-mapped file. The file is mapped in segments of 1 GB, each 
+ * of which is only mapped once it's first accessed. Segments are mapped 
+ * at most once, also when threads touch them at the same time. Elements are indexed 
+ * with a {@code long}, so a buffer may hold more than 2^31 elements. 
+ * Values are stored in little-endian byte order.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+abstract class AbstractMappedBuffer
+{
+	private static final int SEGMENT_SHIFT = 30;
+	
+	protected int width = 0;
+	protected int height = 0;
+	protected long length = 0;
+	protected int shift = 0;
+	protected long mask = 0;
+	
+	private FileChannel channel;
+	private MapMode mode;
+	private int elementShift;
+	private AtomicReferenceArray<MappedByteBuffer> segments;
+	
+	/**
+	 * Opens the file and sets the dimensions and area of the buffer. 
+	 * A writable file is created or grown when it's too small to hold 
+	 * the buffer. No part of the file is mapped yet.
+	 * @param file - the file that backs the buffer
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @param elementShift - the size of an element in bytes, as a power of two
+	 * @param readOnly - true to map the file read-only
+	 * @throws IOException when the file cannot be opened, or a read-only 
+	 * file is too small to hold the buffer
+	 * @since 1.1.0
+	 */
+	protected void open(Path file, int width, int height, int elementShift, boolean readOnly) throws IOException
+	{
+		this.width=width;
+		this.height=height;
+		this.elementShift=elementShift;
+		length = (long)width * (long)height;
+		shift = SEGMENT_SHIFT - elementShift;
+		mask = (1L<<shift) - 1L;
+		
+		if (readOnly)
+		{
+			channel = FileChannel.open(file, READ);
+			mode = MapMode.READ_ONLY;
+			if (channel.size() < (length<<elementShift))
+			{
+				channel.close();
+				throw new IOException("File "+file+" is too small for a "+width+" by "+height+" buffer");
+			}
+		}
+		else
+		{
+			channel = FileChannel.open(file, READ, WRITE, CREATE);
+			mode = MapMode.READ_WRITE;
+		}
+		segments = new AtomicReferenceArray<MappedByteBuffer>((int)((length + mask) >> shift));
+	}
+	
+	/**
+	 * Returns the segment with the given number, mapping it into memory 
+	 * if that has not happened yet.
+	 * @param s - the segment number
+	 * @return the mapped segment
+	 * @since 1.1.0
+	 */
+	protected MappedByteBuffer segment(int s)
+	{
+		MappedByteBuffer segment = segments.get(s);
+		if (segment != null) return segment;
+		return map(s);
+	}
+	
+	/*
+	 * map a segment under the lock, unless another thread just did
+	 */
+	private synchronized MappedByteBuffer map(int s)
+	{
+		MappedByteBuffer segment = segments.get(s);
+		if (segment != null) return segment;
+		
+		long position = (long)s << SEGMENT_SHIFT;
+		long size = Math.min(1L << SEGMENT_SHIFT, (length<<elementShift) - position);
+		try
+		{
+			segment = channel.map(mode, position, size);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		segment.order(ByteOrder.LITTLE_ENDIAN);
+		segments.set(s, segment);
+		return segment;
+	}
+	
+	/**
+	 * Returns the width of the buffer.
+	 * @return the width of the buffer
+	 * @since 1.1.0
+	 */
+    public int getWidth()
+    {return width;}
+    
+	/**
+	 * Returns the height of the buffer.
+	 * @return the height of the buffer
+	 * @since 1.1.0
+	 */
+    public int getHeight()
+    {return height;}
+    
+	/**
+	 * Returns the length of the buffer.
+	 * @return the length of the buffer
+	 * @since 1.1.0
+	 */
+    public long getLength()
+    {return length;}
+    
+	/**
+	 * Writes all changes made to the mapped segments back to the file.
+	 * @since 1.1.0
+	 */
+    public void flush()
+    {
+    	if (mode != MapMode.READ_WRITE) return;
+    	for (int s=0, l=segments.length(); s<l; s++)
+    	{
+    		MappedByteBuffer segment = segments.get(s);
+    		if (segment != null) segment.force();
+    	}
+    }
+    
+	/**
+	 * Drops all segments and closes the file. A segment is unmapped 
+	 * once the garbage collector finds it unreachable. Changes that 
+	 * have not been flushed are written back by the operating system. 
+	 * The buffer must not be used after this method has been invoked.
+	 * @since 1.1.0
+	 */
+    public void free()
+    {
+    	if (segments == null) return;
+    	segments = null;
+    	try
+    	{
+    		channel.close();
+    	}
+    	catch (IOException e)
+    	{
+    		e.printStackTrace();
+    	}
+    }
+}
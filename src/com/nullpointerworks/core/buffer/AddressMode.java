@@ -0,0 +1,33 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+/**
+ * This enumeration contains the ways a {@code Sampler} handles texture 
+ * coordinates outside of the texture. Items include; REPEAT, CLAMP and 
+ * MIRROR.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public enum AddressMode
+{
+	/**
+	 * Tile the texture endlessly in both directions.
+	 * @since 1.1.0
+	 */
+	REPEAT,
+	/**
+	 * Use the texel on the nearest edge of the texture.
+	 * @since 1.1.0
+	 */
+	CLAMP,
+	/**
+	 * Tile the texture endlessly, flipping every other tile 
+	 * so that neighbouring tiles meet seamlessly.
+	 * @since 1.1.0
+	 */
+	MIRROR
+}
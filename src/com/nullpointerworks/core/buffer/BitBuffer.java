@@ -0,0 +1,355 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+import java.util.Arrays;
+
+/**
+ * A buffer implementation that packs its {@code boolean} values as bits
+ * into a {@code long} array. Each element takes a single bit, an eighth
+ * of a {@code BooleanBuffer}, and the bulk operations handle 64 elements
+ * per step.
+ * <p>
+ * Elements are stored in row-major order, element {@code i} being bit
+ * {@code i & 63} of word {@code i >> 6}. Rows are not padded to whole
+ * words. Bits past the last element are always 0.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public class BitBuffer extends AbstractBuffer<BitBuffer>
+{
+	protected long[] values;
+
+	/**
+	 * Creates a buffer with the given dimensions. Each
+	 * element of this buffer will be defaulted to false.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @since 1.1.0
+	 */
+	public BitBuffer(int width, int height)
+	{
+		createBuffer(width,height);
+	}
+
+	/**
+	 * Creates a buffer with the given dimensions and
+	 * initial value.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @param init - the initial value
+	 * @since 1.1.0
+	 */
+	public BitBuffer(int width, int height, boolean init)
+	{
+		createBuffer(width,height);
+		clear(init);
+	}
+
+	/**
+	 * Creates a buffer with the dimensions and content of
+	 * the given boolean buffer.
+	 * @param buffer - the boolean buffer to pack
+	 * @since 1.1.0
+	 */
+	public BitBuffer(BooleanBuffer buffer)
+	{
+		createBuffer(buffer.getWidth(),buffer.getHeight());
+		boolean[] array = buffer.content();
+		for (int y=0, i=0; y<height; y++)
+		{
+			for (int s=buffer.index(0,y), e=s+width; s<e; s++, i++)
+			{
+				if (array[s]) values[i>>>6] |= 1L << i;
+			}
+		}
+	}
+
+	/**
+	 * Creates a buffer with the given dimensions.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @since 1.1.0
+	 */
+	protected void createBuffer(int width, int height)
+	{
+		setBuffer(width,height);
+		values = new long[(length + 63) >>> 6];
+	}
+
+	/**
+	 * Places the given value onto the buffer at the specified
+	 * index. This method has no boundary detection. It is up
+	 * to the user to make sure the index is within bounds.
+	 * @param index - the index in the buffer
+	 * @param value - the value to be placed
+	 * @since 1.1.0
+	 */
+	public void plot(int index, boolean value)
+	{
+		if (value) values[index>>>6] |= 1L << index;
+		else values[index>>>6] &= ~(1L << index);
+	}
+
+	/**
+	 * Places the given value onto the buffer at the specified
+	 * coordinates. This method has no boundary detection. It is
+	 * up to the user to make sure the index is within bounds.
+	 * @param x - the location along the width of the buffer
+	 * @param y - the location along the height of the buffer
+	 * @param value - the value to be placed
+	 * @since 1.1.0
+	 */
+	public void plot(int x, int y, boolean value)
+	{
+		plot(x + y*width, value);
+	}
+
+	/**
+	 * Set the value of the entire buffer to the given value.
+	 * @param value - the value to clear the buffer with
+	 * @since 1.1.0
+	 */
+	public void clear(boolean value)
+	{
+		if (!value)
+		{
+			Arrays.fill(values, 0L);
+			return;
+		}
+		Arrays.fill(values, -1L);
+		trim();
+	}
+
+	/**
+	 * Returns the array content of the buffer, 64 elements
+	 * per word.
+	 * @return the array content of the buffer
+	 * @since 1.1.0
+	 */
+	public long[] content()
+	{
+		return values;
+	}
+
+	/**
+	 * Take a value from the buffer at the specified index. This
+	 * method has no boundary detection. It is up to the user to
+	 * make sure the index is within bounds.
+	 * @param index - an index in the buffer
+	 * @return the value from the buffer at the specified index
+	 * @since 1.1.0
+	 */
+	public boolean grab(int index)
+	{
+		return (values[index>>>6] & (1L << index)) != 0L;
+	}
+
+	/**
+	 * Take a value from the buffer at the specified coordinates.
+	 * This method has no boundary detection. It is up to the user
+	 * to make sure the index is within bounds.
+	 * @param x - the location along the width of the buffer
+	 * @param y - the location along the height of the buffer
+	 * @return the value from the buffer at the specified coordinates
+	 * @since 1.1.0
+	 */
+	public boolean grab(int x, int y)
+	{
+		return grab(x + y*width);
+	}
+
+	/**
+	 * Take a value from the buffer at the specified UV mapping
+	 * coordinates. The parameter W is a depth scaling value
+	 * that can be kept at 1 if no depth correction is performed.
+	 * This method has no boundary detection. It is up to the user
+	 * to make sure the index is within bounds.
+	 * @param u - a factor [0-1] along the width of the buffer
+	 * @param v - a factor [0-1] along the height of the buffer
+	 * @param w - the depth scaling parameter
+	 * @return the value from the buffer at the found coordinates
+	 * @since 1.1.0
+	 */
+	public boolean grab(float u, float v, float w)
+	{
+		float sc = 0.999f*w;
+		int x = (int)(sc*u*width);
+		int y = (int)(sc*v*height);
+		return grab(x + y*width);
+	}
+
+	/**
+	 * Set the value of all elements within the given rectangle.
+	 * Each row is filled a word at a time. This method has no
+	 * boundary detection. It is up to the user to make sure the
+	 * rectangle is within bounds.
+	 * @param x - the left side of the rectangle
+	 * @param y - the top side of the rectangle
+	 * @param w - the width of the rectangle
+	 * @param h - the height of the rectangle
+	 * @param value - the value to fill the rectangle with
+	 * @since 1.1.0
+	 */
+	public void fillRect(int x, int y, int w, int h, boolean value)
+	{
+		if (w < 1) return;
+		for (int i=x+y*width, e=i+h*width; i<e; i+=width)
+		{
+			fill(i, i+w, value);
+		}
+	}
+
+	/**
+	 * Keeps only the elements that are also set in the given
+	 * buffer. Both buffers are expected to have the same length.
+	 * @param buffer - the mask to intersect with
+	 * @since 1.1.0
+	 */
+	public void and(BitBuffer buffer)
+	{
+		if (buffer.length != length) return;
+		long[] m = buffer.values;
+		for (int i=0, l=values.length; i<l; i++) values[i] &= m[i];
+	}
+
+	/**
+	 * Sets the elements that are set in the given buffer. Both
+	 * buffers are expected to have the same length.
+	 * @param buffer - the mask to unite with
+	 * @since 1.1.0
+	 */
+	public void or(BitBuffer buffer)
+	{
+		if (buffer.length != length) return;
+		long[] m = buffer.values;
+		for (int i=0, l=values.length; i<l; i++) values[i] |= m[i];
+	}
+
+	/**
+	 * Flips the elements that are set in the given buffer. Both
+	 * buffers are expected to have the same length.
+	 * @param buffer - the mask of elements to flip
+	 * @since 1.1.0
+	 */
+	public void xor(BitBuffer buffer)
+	{
+		if (buffer.length != length) return;
+		long[] m = buffer.values;
+		for (int i=0, l=values.length; i<l; i++) values[i] ^= m[i];
+	}
+
+	/**
+	 * Clears the elements that are set in the given buffer. Both
+	 * buffers are expected to have the same length.
+	 * @param buffer - the mask of elements to clear
+	 * @since 1.1.0
+	 */
+	public void andNot(BitBuffer buffer)
+	{
+		if (buffer.length != length) return;
+		long[] m = buffer.values;
+		for (int i=0, l=values.length; i<l; i++) values[i] &= ~m[i];
+	}
+
+	/**
+	 * Returns the amount of elements that are set.
+	 * @return the amount of elements that are set
+	 * @since 1.1.0
+	 */
+	public int cardinality()
+	{
+		int count = 0;
+		for (long word : values) count += Long.bitCount(word);
+		return count;
+	}
+
+	/**
+	 * Returns the index of the first element that is set, starting
+	 * at the given index.
+	 * @param index - the index to start searching from
+	 * @return the index of the next set element, or -1 if there is none
+	 * @since 1.1.0
+	 */
+	public int nextSetBit(int index)
+	{
+		if (index < 0) index = 0;
+		if (index >= length) return -1;
+		int w = index>>>6;
+		long word = values[w] & (-1L << index);
+		while (word == 0L)
+		{
+			if (++w == values.length) return -1;
+			word = values[w];
+		}
+		return (w<<6) + Long.numberOfTrailingZeros(word);
+	}
+
+	/**
+	 * Returns an unpacked copy of this buffer.
+	 * @return an unpacked copy of this buffer
+	 * @since 1.1.0
+	 */
+	public BooleanBuffer toBooleanBuffer()
+	{
+		BooleanBuffer buffer = new BooleanBuffer(width,height);
+		boolean[] array = buffer.content();
+		for (int i=nextSetBit(0); i>=0; i=nextSetBit(i+1)) array[i] = true;
+		return buffer;
+	}
+
+	@Override
+	public void free()
+	{
+		values = null;
+	}
+
+	@Override
+	public BitBuffer copy()
+	{
+		BitBuffer buff = new BitBuffer(0,0);
+		buff.setBuffer(width,height);
+		buff.values = values.clone();
+		return buff;
+	}
+
+	/*
+	 * set or clear the bits in [from, to), whole words at a time
+	 */
+	private void fill(int from, int to, boolean value)
+	{
+		int fw = from>>>6;
+		int tw = (to-1)>>>6;
+		long first = -1L << from;
+		long last = -1L >>> -to;
+		if (fw == tw)
+		{
+			long mask = first & last;
+			if (value) values[fw] |= mask;
+			else values[fw] &= ~mask;
+			return;
+		}
+		if (value)
+		{
+			values[fw] |= first;
+			Arrays.fill(values, fw+1, tw, -1L);
+			values[tw] |= last;
+			return;
+		}
+		values[fw] &= ~first;
+		Arrays.fill(values, fw+1, tw, 0L);
+		values[tw] &= ~last;
+	}
+
+	/*
+	 * clear the bits past the last element
+	 */
+	private void trim()
+	{
+		if ((length & 63) == 0 || values.length == 0) return;
+		values[values.length-1] &= -1L >>> -length;
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+/**
+ * This enumeration contains the ways a {@code Compositor} combines a 
+ * source color with a destination color. Items include; SRC, SRC_OVER, 
+ * SRC_OVER_PREMULTIPLIED, ADD, MULTIPLY and SCREEN.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public enum BlendMode
+{
+	/**
+	 * Replace the destination with the source, ignoring alpha. This is 
+	 * the shortcut for opaque sources and copies whole rows at once.
+	 * @since 1.1.0
+	 */
+	SRC,
+	/**
+	 * Blend the source over the destination by the source alpha.
+	 * @since 1.1.0
+	 */
+	SRC_OVER,
+	/**
+	 * Blend the source over the destination, where the color channels 
+	 * of the source are already multiplied by its alpha.
+	 * @since 1.1.0
+	 */
+	SRC_OVER_PREMULTIPLIED,
+	/**
+	 * Add the source, weighted by its alpha, to the destination. 
+	 * Channels saturate at 255.
+	 * @since 1.1.0
+	 */
+	ADD,
+	/**
+	 * Multiply the destination with the source, weighted by its alpha. 
+	 * The result is never lighter than the destination.
+	 * @since 1.1.0
+	 */
+	MULTIPLY,
+	/**
+	 * Multiply the inverse of the destination with the inverse of the 
+	 * source, weighted by its alpha. The result is never darker than 
+	 * the destination.
+	 * @since 1.1.0
+	 */
+	SCREEN
+}
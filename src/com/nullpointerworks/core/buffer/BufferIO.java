@@ -0,0 +1,658 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Reads and writes libnpw-core buffers in a compact binary format. Data 
+ * is streamed straight between the buffer and the channel through a small 
+ * direct staging buffer, so no intermediate copy of the buffer is made.
+ * <p>
+ * The format starts with a 16 byte header, followed by the payload. All 
+ * numbers are little-endian.
+ * <pre>
+ * offset  size  content
+ * 0       4     magic "NPWB"
+ * 4       1     format version, currently 1
+ * 5       1     element type; 1 boolean, 2 byte, 3 short, 4 int, 5 long, 6 float, 7 double
+ * 6       1     flags; bit 0 is set when the payload is deflated
+ * 7       1     reserved, 0
+ * 8       4     width
+ * 12      4     height
+ * 16      ...   payload
+ * </pre>
+ * An uncompressed payload holds width times height elements in row-major 
+ * order. Booleans take a byte each. A deflated payload is split in blocks 
+ * of 16 rows, each stored as its compressed size in bytes followed by the 
+ * deflated elements of those rows. Headers with dimensions that don't 
+ * fit in a buffer, and malformed blocks, are reported as an 
+ * {@code IOException}.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public final class BufferIO
+{
+	private static final int MAGIC = 0x4257504E;
+	private static final byte VERSION = 1;
+	private static final byte FLAG_DEFLATE = 1;
+	private static final int HEADER_SIZE = 16;
+	private static final int BLOCK_ROWS = 16;
+	private static final int CHUNK_SIZE = 1<<16;
+	private static final int MAX_LENGTH = Integer.MAX_VALUE - 8;
+	private static final int MAX_BLOCK = 1<<30;
+	
+	private static final byte BOOLEAN = 1;
+	private static final byte BYTE = 2;
+	private static final byte SHORT = 3;
+	private static final byte INT = 4;
+	private static final byte LONG = 5;
+	private static final byte FLOAT = 6;
+	private static final byte DOUBLE = 7;
+	
+	private BufferIO()
+	{}
+	
+	/**
+	 * Writes the given buffer to the channel, uncompressed.
+	 * @param buffer - the buffer to write
+	 * @param channel - the channel to write to
+	 * @throws IOException when writing to the channel fails
+	 * @since 1.1.0
+	 */
+	public static void write(BooleanBuffer buffer, WritableByteChannel channel) throws IOException
+	{
+		write(buffer, channel, false);
+	}
+	
+	/**
+	 * Writes the given buffer to the channel. When compressed, the 
+	 * values are deflated in blocks of 16 rows.
+	 * @param buffer - the buffer to write
+	 * @param channel - the channel to write to
+	 * @param compress - true to deflate the values
+	 * @throws IOException when writing to the channel fails
+	 * @since 1.1.0
+	 */
+	public static void write(BooleanBuffer buffer, WritableByteChannel channel, boolean compress) throws IOException
+	{
+		final boolean[] values = buffer.content();
+		write(channel, BOOLEAN, 1, buffer, compress, (buf, off, n) ->
+		{
+			for (int i=off, e=off+n; i<e; i++) buf.put(values[i]? (byte)1: (byte)0);
+		});
+	}
+	
+	/**
+	 * Reads a {@code BooleanBuffer} from the channel.
+	 * @param channel - the channel to read from
+	 * @return the buffer that was read
+	 * @throws IOException when reading from the channel fails, or the 
+	 * data does not hold a {@code BooleanBuffer}
+	 * @since 1.1.0
+	 */
+	public static BooleanBuffer readBooleanBuffer(ReadableByteChannel channel) throws IOException
+	{
+		Header header = readHeader(channel, BOOLEAN, 1);
+		BooleanBuffer buffer = new BooleanBuffer(header.width, header.height);
+		final boolean[] values = buffer.content();
+		read(channel, header, 1, (buf, off, n) ->
+		{
+			for (int i=off, e=off+n; i<e; i++) values[i] = buf.get() != 0;
+		});
+		return buffer;
+	}
+	
+	/**
+	 * Writes the given buffer to the channel, uncompressed.
+	 * @param buffer - the buffer to write
+	 * @param channel - the channel to write to
+	 * @throws IOException when writing to the channel fails
+	 * @since 1.1.0
+	 */
+	public static void write(ByteBuffer buffer, WritableByteChannel channel) throws IOException
+	{
+		write(buffer, channel, false);
+	}
+	
+	/**
+	 * Writes the given buffer to the channel. When compressed, the 
+	 * values are deflated in blocks of 16 rows.
+	 * @param buffer - the buffer to write
+	 * @param channel - the channel to write to
+	 * @param compress - true to deflate the values
+	 * @throws IOException when writing to the channel fails
+	 * @since 1.1.0
+	 */
+	public static void write(ByteBuffer buffer, WritableByteChannel channel, boolean compress) throws IOException
+	{
+		final byte[] values = buffer.content();
+		write(channel, BYTE, 1, buffer, compress, (buf, off, n) -> buf.put(values, off, n));
+	}
+	
+	/**
+	 * Reads a {@code ByteBuffer} from the channel.
+	 * @param channel - the channel to read from
+	 * @return the buffer that was read
+	 * @throws IOException when reading from the channel fails, or the 
+	 * data does not hold a {@code ByteBuffer}
+	 * @since 1.1.0
+	 */
+	public static ByteBuffer readByteBuffer(ReadableByteChannel channel) throws IOException
+	{
+		Header header = readHeader(channel, BYTE, 1);
+		ByteBuffer buffer = new ByteBuffer(header.width, header.height);
+		final byte[] values = buffer.content();
+		read(channel, header, 1, (buf, off, n) -> buf.get(values, off, n));
+		return buffer;
+	}
+	
+	/**
+	 * Writes the given buffer to the channel, uncompressed.
+	 * @param buffer - the buffer to write
+	 * @param channel - the channel to write to
+	 * @throws IOException when writing to the channel fails
+	 * @since 1.1.0
+	 */
+	public static void write(ShortBuffer buffer, WritableByteChannel channel) throws IOException
+	{
+		write(buffer, channel, false);
+	}
+	
+	/**
+	 * Writes the given buffer to the channel. When compressed, the 
+	 * values are deflated in blocks of 16 rows.
+	 * @param buffer - the buffer to write
+	 * @param channel - the channel to write to
+	 * @param compress - true to deflate the values
+	 * @throws IOException when writing to the channel fails
+	 * @since 1.1.0
+	 */
+	public static void write(ShortBuffer buffer, WritableByteChannel channel, boolean compress) throws IOException
+	{
+		final short[] values = buffer.content();
+		write(channel, SHORT, 2, buffer, compress, (buf, off, n) ->
+		{
+			buf.asShortBuffer().put(values, off, n);
+			buf.position(buf.position() + n*2);
+		});
+	}
+	
+	/**
+	 * Reads a {@code ShortBuffer} from the channel.
+	 * @param channel - the channel to read from
+	 * @return the buffer that was read
+	 * @throws IOException when reading from the channel fails, or the 
+	 * data does not hold a {@code ShortBuffer}
+	 * @since 1.1.0
+	 */
+	public static ShortBuffer readShortBuffer(ReadableByteChannel channel) throws IOException
+	{
+		Header header = readHeader(channel, SHORT, 2);
+		ShortBuffer buffer = new ShortBuffer(header.width, header.height);
+		final short[] values = buffer.content();
+		read(channel, header, 2, (buf, off, n) ->
+		{
+			buf.asShortBuffer().get(values, off, n);
+			buf.position(buf.position() + n*2);
+		});
+		return buffer;
+	}
+	
+	/**
+	 * Writes the given buffer to the channel, uncompressed.
+	 * @param buffer - the buffer to write
+	 * @param channel - the channel to write to
+	 * @throws IOException when writing to the channel fails
+	 * @since 1.1.0
+	 */
+	public static void write(IntBuffer buffer, WritableByteChannel channel) throws IOException
+	{
+		write(buffer, channel, false);
+	}
+	
+	/**
+	 * Writes the given buffer to the channel. When compressed, the 
+	 * values are deflated in blocks of 16 rows.
+	 * @param buffer - the buffer to write
+	 * @param channel - the channel to write to
+	 * @param compress - true to deflate the values
+	 * @throws IOException when writing to the channel fails
+	 * @since 1.1.0
+	 */
+	public static void write(IntBuffer buffer, WritableByteChannel channel, boolean compress) throws IOException
+	{
+		final int[] values = buffer.content();
+		write(channel, INT, 4, buffer, compress, (buf, off, n) ->
+		{
+			buf.asIntBuffer().put(values, off, n);
+			buf.position(buf.position() + n*4);
+		});
+	}
+	
+	/**
+	 * Reads a {@code IntBuffer} from the channel.
+	 * @param channel - the channel to read from
+	 * @return the buffer that was read
+	 * @throws IOException when reading from the channel fails, or the 
+	 * data does not hold a {@code IntBuffer}
+	 * @since 1.1.0
+	 */
+	public static IntBuffer readIntBuffer(ReadableByteChannel channel) throws IOException
+	{
+		Header header = readHeader(channel, INT, 4);
+		IntBuffer buffer = new IntBuffer(header.width, header.height);
+		final int[] values = buffer.content();
+		read(channel, header, 4, (buf, off, n) ->
+		{
+			buf.asIntBuffer().get(values, off, n);
+			buf.position(buf.position() + n*4);
+		});
+		return buffer;
+	}
+	
+	/**
+	 * Writes the given buffer to the channel, uncompressed.
+	 * @param buffer - the buffer to write
+	 * @param channel - the channel to write to
+	 * @throws IOException when writing to the channel fails
+	 * @since 1.1.0
+	 */
+	public static void write(LongBuffer buffer, WritableByteChannel channel) throws IOException
+	{
+		write(buffer, channel, false);
+	}
+	
+	/**
+	 * Writes the given buffer to the channel. When compressed, the 
+	 * values are deflated in blocks of 16 rows.
+	 * @param buffer - the buffer to write
+	 * @param channel - the channel to write to
+	 * @param compress - true to deflate the values
+	 * @throws IOException when writing to the channel fails
+	 * @since 1.1.0
+	 */
+	public static void write(LongBuffer buffer, WritableByteChannel channel, boolean compress) throws IOException
+	{
+		final long[] values = buffer.content();
+		write(channel, LONG, 8, buffer, compress, (buf, off, n) ->
+		{
+			buf.asLongBuffer().put(values, off, n);
+			buf.position(buf.position() + n*8);
+		});
+	}
+	
+	/**
+	 * Reads a {@code LongBuffer} from the channel.
+	 * @param channel - the channel to read from
+	 * @return the buffer that was read
+	 * @throws IOException when reading from the channel fails, or the 
+	 * data does not hold a {@code LongBuffer}
+	 * @since 1.1.0
+	 */
+	public static LongBuffer readLongBuffer(ReadableByteChannel channel) throws IOException
+	{
+		Header header = readHeader(channel, LONG, 8);
+		LongBuffer buffer = new LongBuffer(header.width, header.height);
+		final long[] values = buffer.content();
+		read(channel, header, 8, (buf, off, n) ->
+		{
+			buf.asLongBuffer().get(values, off, n);
+			buf.position(buf.position() + n*8);
+		});
+		return buffer;
+	}
+	
+	/**
+	 * Writes the given buffer to the channel, uncompressed.
+	 * @param buffer - the buffer to write
+	 * @param channel - the channel to write to
+	 * @throws IOException when writing to the channel fails
+	 * @since 1.1.0
+	 */
+	public static void write(FloatBuffer buffer, WritableByteChannel channel) throws IOException
+	{
+		write(buffer, channel, false);
+	}
+	
+	/**
+	 * Writes the given buffer to the channel. When compressed, the 
+	 * values are deflated in blocks of 16 rows.
+	 * @param buffer - the buffer to write
+	 * @param channel - the channel to write to
+	 * @param compress - true to deflate the values
+	 * @throws IOException when writing to the channel fails
+	 * @since 1.1.0
+	 */
+	public static void write(FloatBuffer buffer, WritableByteChannel channel, boolean compress) throws IOException
+	{
+		final float[] values = buffer.content();
+		write(channel, FLOAT, 4, buffer, compress, (buf, off, n) ->
+		{
+			buf.asFloatBuffer().put(values, off, n);
+			buf.position(buf.position() + n*4);
+		});
+	}
+	
+	/**
+	 * Reads a {@code FloatBuffer} from the channel.
+	 * @param channel - the channel to read from
+	 * @return the buffer that was read
+	 * @throws IOException when reading from the channel fails, or the 
+	 * data does not hold a {@code FloatBuffer}
+	 * @since 1.1.0
+	 */
+	public static FloatBuffer readFloatBuffer(ReadableByteChannel channel) throws IOException
+	{
+		Header header = readHeader(channel, FLOAT, 4);
+		FloatBuffer buffer = new FloatBuffer(header.width, header.height);
+		final float[] values = buffer.content();
+		read(channel, header, 4, (buf, off, n) ->
+		{
+			buf.asFloatBuffer().get(values, off, n);
+			buf.position(buf.position() + n*4);
+		});
+		return buffer;
+	}
+	
+	/**
+	 * Writes the given buffer to the channel, uncompressed.
+	 * @param buffer - the buffer to write
+	 * @param channel - the channel to write to
+	 * @throws IOException when writing to the channel fails
+	 * @since 1.1.0
+	 */
+	public static void write(DoubleBuffer buffer, WritableByteChannel channel) throws IOException
+	{
+		write(buffer, channel, false);
+	}
+	
+	/**
+	 * Writes the given buffer to the channel. When compressed, the 
+	 * values are deflated in blocks of 16 rows.
+	 * @param buffer - the buffer to write
+	 * @param channel - the channel to write to
+	 * @param compress - true to deflate the values
+	 * @throws IOException when writing to the channel fails
+	 * @since 1.1.0
+	 */
+	public static void write(DoubleBuffer buffer, WritableByteChannel channel, boolean compress) throws IOException
+	{
+		final double[] values = buffer.content();
+		write(channel, DOUBLE, 8, buffer, compress, (buf, off, n) ->
+		{
+			buf.asDoubleBuffer().put(values, off, n);
+			buf.position(buf.position() + n*8);
+		});
+	}
+	
+	/**
+	 * Reads a {@code DoubleBuffer} from the channel.
+	 * @param channel - the channel to read from
+	 * @return the buffer that was read
+	 * @throws IOException when reading from the channel fails, or the 
+	 * data does not hold a {@code DoubleBuffer}
+	 * @since 1.1.0
+	 */
+	public static DoubleBuffer readDoubleBuffer(ReadableByteChannel channel) throws IOException
+	{
+		Header header = readHeader(channel, DOUBLE, 8);
+		DoubleBuffer buffer = new DoubleBuffer(header.width, header.height);
+		final double[] values = buffer.content();
+		read(channel, header, 8, (buf, off, n) ->
+		{
+			buf.asDoubleBuffer().get(values, off, n);
+			buf.position(buf.position() + n*8);
+		});
+		return buffer;
+	}
+	// ==========================================
+	
+	/*
+	 * moves n elements starting at the given offset between the buffer and the staging buffer
+	 */
+	private interface Transfer
+	{
+		void apply(java.nio.ByteBuffer buf, int offset, int n);
+	}
+	
+	/*
+	 * the decoded header of a stream
+	 */
+	private static class Header
+	{
+		private int width;
+		private int height;
+		private boolean deflated;
+	}
+	
+	/*
+	 * write a header and payload
+	 */
+	private static void write(WritableByteChannel channel, byte type, int size, AbstractBuffer<?> buffer, 
+							  boolean compress, Transfer transfer) throws IOException
+	{
+		int width = buffer.getWidth();
+		int height = buffer.getHeight();
+		java.nio.ByteBuffer header = java.nio.ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC).put(VERSION).put(type).put(compress? FLAG_DEFLATE: 0).put((byte)0);
+		header.putInt(width).putInt(height).flip();
+		writeFully(channel, header);
+		
+		if (!compress)
+		{
+			int length = width*height;
+			int per = CHUNK_SIZE / size;
+			java.nio.ByteBuffer chunk = java.nio.ByteBuffer.allocateDirect(per*size).order(ByteOrder.LITTLE_ENDIAN);
+			for (int i=0; i<length; i+=per)
+			{
+				chunk.clear();
+				apply(transfer, buffer, chunk, i, Math.min(per, length-i));
+				chunk.flip();
+				writeFully(channel, chunk);
+			}
+			return;
+		}
+		
+		int blockSize = blockSize(width, size);
+		java.nio.ByteBuffer raw = java.nio.ByteBuffer.allocateDirect(blockSize).order(ByteOrder.LITTLE_ENDIAN);
+		java.nio.ByteBuffer out = java.nio.ByteBuffer.allocateDirect(4 + blockSize + (blockSize>>8) + 64).order(ByteOrder.LITTLE_ENDIAN);
+		Deflater deflater = new Deflater();
+		try
+		{
+			for (int y=0; y<height; y+=BLOCK_ROWS)
+			{
+				raw.clear();
+				apply(transfer, buffer, raw, y*width, Math.min(BLOCK_ROWS, height-y)*width);
+				raw.flip();
+				
+				deflater.reset();
+				deflater.setInput(raw);
+				deflater.finish();
+				out.clear();
+				out.position(4);
+				while (!deflater.finished())
+				{
+					if (!out.hasRemaining()) out = grow(out);
+					deflater.deflate(out);
+				}
+				out.flip();
+				out.putInt(0, out.limit()-4);
+				writeFully(channel, out);
+			}
+		}
+		finally
+		{
+			deflater.end();
+		}
+	}
+	
+	/*
+	 * hand a range of elements, counted in row-major order without 
+	 * padding, to the transfer. buffers that aren't packed are 
+	 * transferred one row at a time
+	 */
+	private static void apply(Transfer transfer, AbstractBuffer<?> buffer, java.nio.ByteBuffer buf, int from, int n)
+	{
+		if (buffer.isPacked())
+		{
+			transfer.apply(buf, buffer.offset + from, n);
+			return;
+		}
+		int width = buffer.width;
+		for (int e=from+n; from<e;)
+		{
+			int y = from / width;
+			int x = from - y*width;
+			int run = Math.min(width-x, e-from);
+			transfer.apply(buf, buffer.index(x,y), run);
+			from += run;
+		}
+	}
+	
+	/*
+	 * read and validate a header
+	 */
+	private static Header readHeader(ReadableByteChannel channel, byte type, int size) throws IOException
+	{
+		java.nio.ByteBuffer buf = java.nio.ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, buf);
+		buf.flip();
+		if (buf.getInt() != MAGIC) throw new IOException("Not a libnpw-core buffer stream");
+		byte version = buf.get();
+		if (version != VERSION) throw new IOException("Unsupported buffer format version "+version);
+		byte found = buf.get();
+		if (found != type) throw new IOException("Expected element type "+type+", but found "+found);
+		
+		Header header = new Header();
+		header.deflated = (buf.get() & FLAG_DEFLATE) != 0;
+		buf.get();
+		header.width = buf.getInt();
+		header.height = buf.getInt();
+		if (header.width < 0 || header.height < 0) throw new IOException("Invalid buffer dimensions");
+		long length = (long)header.width * (long)header.height;
+		if (length > MAX_LENGTH) throw new IOException("A "+header.width+" by "+header.height+" buffer is too large");
+		if (header.deflated)
+		{
+			blockSize(header.width, size);
+		}
+		else if (channel instanceof SeekableByteChannel)
+		{
+			SeekableByteChannel file = (SeekableByteChannel)channel;
+			if (file.size() - file.position() < length*size) throw new EOFException("Truncated payload");
+		}
+		return header;
+	}
+	
+	/*
+	 * read a payload
+	 */
+	private static void read(ReadableByteChannel channel, Header header, int size, Transfer transfer) throws IOException
+	{
+		int width = header.width;
+		int height = header.height;
+		
+		if (!header.deflated)
+		{
+			int length = width*height;
+			int per = CHUNK_SIZE / size;
+			java.nio.ByteBuffer chunk = java.nio.ByteBuffer.allocateDirect(per*size).order(ByteOrder.LITTLE_ENDIAN);
+			for (int i=0; i<length; i+=per)
+			{
+				int n = Math.min(per, length-i);
+				chunk.clear().limit(n*size);
+				readFully(channel, chunk);
+				chunk.flip();
+				transfer.apply(chunk, i, n);
+			}
+			return;
+		}
+		
+		int blockSize = blockSize(width, size);
+		java.nio.ByteBuffer raw = java.nio.ByteBuffer.allocateDirect(blockSize).order(ByteOrder.LITTLE_ENDIAN);
+		java.nio.ByteBuffer in = java.nio.ByteBuffer.allocateDirect(blockSize + (blockSize>>8) + 64).order(ByteOrder.LITTLE_ENDIAN);
+		java.nio.ByteBuffer prefix = java.nio.ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+		Inflater inflater = new Inflater();
+		try
+		{
+			for (int y=0; y<height; y+=BLOCK_ROWS)
+			{
+				int n = Math.min(BLOCK_ROWS, height-y)*width;
+				prefix.clear();
+				readFully(channel, prefix);
+				int compressed = prefix.getInt(0);
+				if (compressed < 0 || compressed > in.capacity()) throw new IOException("Invalid block size at row "+y);
+				in.clear().limit(compressed);
+				readFully(channel, in);
+				in.flip();
+				
+				inflater.reset();
+				inflater.setInput(in);
+				raw.clear().limit(n*size);
+				while (raw.hasRemaining() && !inflater.finished())
+				{
+					if (inflater.inflate(raw) > 0) continue;
+					if (inflater.needsInput()) break;
+					throw new IOException("Corrupt block at row "+y);
+				}
+				if (raw.hasRemaining()) throw new EOFException("Truncated block at row "+y);
+				raw.flip();
+				transfer.apply(raw, y*width, n);
+			}
+		}
+		catch (DataFormatException e)
+		{
+			throw new IOException(e);
+		}
+		finally
+		{
+			inflater.end();
+		}
+	}
+	
+	/*
+	 * the size in bytes of a block of rows. rows that are too wide 
+	 * for a block to fit in a direct buffer are rejected
+	 */
+	private static int blockSize(int width, int size) throws IOException
+	{
+		long bytes = (long)BLOCK_ROWS * size * width;
+		if (bytes > MAX_BLOCK) throw new IOException("Rows of "+width+" elements are too wide to deflate");
+		return (int)bytes;
+	}
+	
+	/*
+	 * returns a larger copy of the given output buffer
+	 */
+	private static java.nio.ByteBuffer grow(java.nio.ByteBuffer out)
+	{
+		java.nio.ByteBuffer bigger = java.nio.ByteBuffer.allocateDirect(out.capacity()*2).order(ByteOrder.LITTLE_ENDIAN);
+		out.flip();
+		bigger.put(out);
+		return bigger;
+	}
+	
+	private static void writeFully(WritableByteChannel channel, java.nio.ByteBuffer buf) throws IOException
+	{
+		while (buf.hasRemaining()) channel.write(buf);
+	}
+	
+	private static void readFully(ReadableByteChannel channel, java.nio.ByteBuffer buf) throws IOException
+	{
+		while (buf.hasRemaining())
+		{
+			if (channel.read(buf) < 0) throw new EOFException();
+		}
+	}
+}
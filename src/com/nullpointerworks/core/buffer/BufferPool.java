@@ -0,0 +1,349 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+/**
+ * A pooling allocator for the libnpw-core buffers. Released buffers are 
+ * kept by type and dimensions, and handed out again when a buffer of the 
+ * same type and dimensions is requested. Together with a {@code FrameArena} 
+ * this lets a render loop run without allocating any buffers once every 
+ * size it uses has been created.
+ * <pre>
+ * FrameArena arena = pool.arena();
+ * IntBuffer temp = arena.obtainInt(256, 256);
+ * ...
+ * arena.endFrame();
+ * </pre>
+ * The pool is thread safe. Pooled buffers are not cleared, so their 
+ * content is undefined when obtained. Each buffer can be released once, 
+ * to the pool it was obtained from. Other releases are ignored. The 
+ * pool holds no reference to the buffers it hands out, so a buffer that 
+ * is never released is simply forgotten.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public class BufferPool
+{
+	private static final int DEFAULT_CAPACITY = 16;
+	private final Pool<IntBuffer> ints;
+	private final Pool<FloatBuffer> floats;
+	private final Pool<ByteBuffer> bytes;
+	private final Pool<ShortBuffer> shorts;
+	private final Pool<LongBuffer> longs;
+	private final Pool<DoubleBuffer> doubles;
+	private final Pool<BooleanBuffer> booleans;
+	private final ThreadLocal<FrameArena> arenas = ThreadLocal.withInitial(() -> new FrameArena(this));
+	
+	/**
+	 * Creates an empty buffer pool that keeps up to 16 released 
+	 * buffers of each type.
+	 * @since 1.1.0
+	 */
+	public BufferPool()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Creates an empty buffer pool that keeps up to the given amount 
+	 * of released buffers of each type. Buffers released while the 
+	 * pool is full are left to garbage collection.
+	 * @param capacity - the maximum amount of buffers kept per type
+	 * @since 1.1.0
+	 */
+	public BufferPool(int capacity)
+	{
+		ints = new Pool<IntBuffer>(IntBuffer.class, IntBuffer::new, capacity);
+		floats = new Pool<FloatBuffer>(FloatBuffer.class, FloatBuffer::new, capacity);
+		bytes = new Pool<ByteBuffer>(ByteBuffer.class, ByteBuffer::new, capacity);
+		shorts = new Pool<ShortBuffer>(ShortBuffer.class, ShortBuffer::new, capacity);
+		longs = new Pool<LongBuffer>(LongBuffer.class, LongBuffer::new, capacity);
+		doubles = new Pool<DoubleBuffer>(DoubleBuffer.class, DoubleBuffer::new, capacity);
+		booleans = new Pool<BooleanBuffer>(BooleanBuffer.class, BooleanBuffer::new, capacity);
+	}
+	
+	/**
+	 * Returns the frame arena of the calling thread. Each thread 
+	 * has its own arena, which obtains its buffers from this pool.
+	 * @return the frame arena of the calling thread
+	 * @since 1.1.0
+	 */
+	public FrameArena arena()
+	{
+		return arenas.get();
+	}
+	
+	/**
+	 * Drops all buffers held by the pool, leaving them to garbage 
+	 * collection. Buffers that are still in use are not affected.
+	 * @since 1.1.0
+	 */
+	public void clear()
+	{
+		ints.clear();
+		floats.clear();
+		bytes.clear();
+		shorts.clear();
+		longs.clear();
+		doubles.clear();
+		booleans.clear();
+	}
+	
+	// ==========================================
+	
+	/**
+	 * Returns a {@code IntBuffer} of the given dimensions. A previously 
+	 * released buffer is reused when available, in which case its 
+	 * content is undefined.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @return a buffer of the given dimensions
+	 * @since 1.1.0
+	 */
+	public IntBuffer obtainInt(int width, int height)
+	{
+		return ints.obtain(width, height);
+	}
+	
+	/**
+	 * Returns a {@code FloatBuffer} of the given dimensions. A previously 
+	 * released buffer is reused when available, in which case its 
+	 * content is undefined.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @return a buffer of the given dimensions
+	 * @since 1.1.0
+	 */
+	public FloatBuffer obtainFloat(int width, int height)
+	{
+		return floats.obtain(width, height);
+	}
+	
+	/**
+	 * Returns a {@code ByteBuffer} of the given dimensions. A previously 
+	 * released buffer is reused when available, in which case its 
+	 * content is undefined.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @return a buffer of the given dimensions
+	 * @since 1.1.0
+	 */
+	public ByteBuffer obtainByte(int width, int height)
+	{
+		return bytes.obtain(width, height);
+	}
+	
+	/**
+	 * Returns a {@code ShortBuffer} of the given dimensions. A previously 
+	 * released buffer is reused when available, in which case its 
+	 * content is undefined.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @return a buffer of the given dimensions
+	 * @since 1.1.0
+	 */
+	public ShortBuffer obtainShort(int width, int height)
+	{
+		return shorts.obtain(width, height);
+	}
+	
+	/**
+	 * Returns a {@code LongBuffer} of the given dimensions. A previously 
+	 * released buffer is reused when available, in which case its 
+	 * content is undefined.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @return a buffer of the given dimensions
+	 * @since 1.1.0
+	 */
+	public LongBuffer obtainLong(int width, int height)
+	{
+		return longs.obtain(width, height);
+	}
+	
+	/**
+	 * Returns a {@code DoubleBuffer} of the given dimensions. A previously 
+	 * released buffer is reused when available, in which case its 
+	 * content is undefined.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @return a buffer of the given dimensions
+	 * @since 1.1.0
+	 */
+	public DoubleBuffer obtainDouble(int width, int height)
+	{
+		return doubles.obtain(width, height);
+	}
+	
+	/**
+	 * Returns a {@code BooleanBuffer} of the given dimensions. A previously 
+	 * released buffer is reused when available, in which case its 
+	 * content is undefined.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @return a buffer of the given dimensions
+	 * @since 1.1.0
+	 */
+	public BooleanBuffer obtainBoolean(int width, int height)
+	{
+		return booleans.obtain(width, height);
+	}
+	// ==========================================
+	
+	/**
+	 * Returns the given buffer to the pool so it can be reused. The 
+	 * buffer must not be used after it has been released. Freed 
+	 * buffers, views, buffers with padded rows and subclasses 
+	 * of {@code IntBuffer} are not pooled.
+	 * Buffers that were not obtained from this pool, or were 
+	 * released already, are ignored.
+	 * @param buffer - the buffer to release
+	 * @since 1.1.0
+	 */
+	public void release(IntBuffer buffer)
+	{
+		if (buffer==null) return;
+		ints.release(buffer, buffer.content()!=null);
+	}
+	
+	/**
+	 * Returns the given buffer to the pool so it can be reused. The 
+	 * buffer must not be used after it has been released. Freed 
+	 * buffers, views, buffers with padded rows and subclasses 
+	 * of {@code FloatBuffer} are not pooled.
+	 * Buffers that were not obtained from this pool, or were 
+	 * released already, are ignored.
+	 * @param buffer - the buffer to release
+	 * @since 1.1.0
+	 */
+	public void release(FloatBuffer buffer)
+	{
+		if (buffer==null) return;
+		floats.release(buffer, buffer.content()!=null);
+	}
+	
+	/**
+	 * Returns the given buffer to the pool so it can be reused. The 
+	 * buffer must not be used after it has been released. Freed 
+	 * buffers, views, buffers with padded rows and subclasses 
+	 * of {@code ByteBuffer} are not pooled.
+	 * Buffers that were not obtained from this pool, or were 
+	 * released already, are ignored.
+	 * @param buffer - the buffer to release
+	 * @since 1.1.0
+	 */
+	public void release(ByteBuffer buffer)
+	{
+		if (buffer==null) return;
+		bytes.release(buffer, buffer.content()!=null);
+	}
+	
+	/**
+	 * Returns the given buffer to the pool so it can be reused. The 
+	 * buffer must not be used after it has been released. Freed 
+	 * buffers, views, buffers with padded rows and subclasses 
+	 * of {@code ShortBuffer} are not pooled.
+	 * Buffers that were not obtained from this pool, or were 
+	 * released already, are ignored.
+	 * @param buffer - the buffer to release
+	 * @since 1.1.0
+	 */
+	public void release(ShortBuffer buffer)
+	{
+		if (buffer==null) return;
+		shorts.release(buffer, buffer.content()!=null);
+	}
+	
+	/**
+	 * Returns the given buffer to the pool so it can be reused. The 
+	 * buffer must not be used after it has been released. Freed 
+	 * buffers, views, buffers with padded rows and subclasses 
+	 * of {@code LongBuffer} are not pooled.
+	 * Buffers that were not obtained from this pool, or were 
+	 * released already, are ignored.
+	 * @param buffer - the buffer to release
+	 * @since 1.1.0
+	 */
+	public void release(LongBuffer buffer)
+	{
+		if (buffer==null) return;
+		longs.release(buffer, buffer.content()!=null);
+	}
+	
+	/**
+	 * Returns the given buffer to the pool so it can be reused. The 
+	 * buffer must not be used after it has been released. Freed 
+	 * buffers, views, buffers with padded rows and subclasses 
+	 * of {@code DoubleBuffer} are not pooled.
+	 * Buffers that were not obtained from this pool, or were 
+	 * released already, are ignored.
+	 * @param buffer - the buffer to release
+	 * @since 1.1.0
+	 */
+	public void release(DoubleBuffer buffer)
+	{
+		if (buffer==null) return;
+		doubles.release(buffer, buffer.content()!=null);
+	}
+	
+	/**
+	 * Returns the given buffer to the pool so it can be reused. The 
+	 * buffer must not be used after it has been released. Freed 
+	 * buffers, views, buffers with padded rows and subclasses 
+	 * of {@code BooleanBuffer} are not pooled.
+	 * Buffers that were not obtained from this pool, or were 
+	 * released already, are ignored.
+	 * @param buffer - the buffer to release
+	 * @since 1.1.0
+	 */
+	public void release(BooleanBuffer buffer)
+	{
+		if (buffer==null) return;
+		booleans.release(buffer, buffer.content()!=null);
+	}
+	
+	/*
+	 * release a buffer of any supported type
+	 */
+	void recycle(AbstractBuffer<?> buffer)
+	{
+		if (buffer instanceof IntBuffer)
+		{
+			release((IntBuffer)buffer);
+			return;
+		}
+		if (buffer instanceof FloatBuffer)
+		{
+			release((FloatBuffer)buffer);
+			return;
+		}
+		if (buffer instanceof ByteBuffer)
+		{
+			release((ByteBuffer)buffer);
+			return;
+		}
+		if (buffer instanceof ShortBuffer)
+		{
+			release((ShortBuffer)buffer);
+			return;
+		}
+		if (buffer instanceof LongBuffer)
+		{
+			release((LongBuffer)buffer);
+			return;
+		}
+		if (buffer instanceof DoubleBuffer)
+		{
+			release((DoubleBuffer)buffer);
+			return;
+		}
+		if (buffer instanceof BooleanBuffer)
+		{
+			release((BooleanBuffer)buffer);
+			return;
+		}
+	}
+}
@@ -0,0 +1,254 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+/**
+ * Composites ARGB colors from one {@code IntBuffer} onto another. The
+ * blend mode is resolved once per row, and each mode runs its own tight
+ * loop. Fully transparent source pixels are skipped and fully opaque
+ * ones are stored as they are, so sprites with hard edges cost little
+ * more than a copy. Use {@code BlendMode.SRC} for sources that are known
+ * to be opaque.
+ * <p>
+ * Colors are integers in ARGB format at 8 bit depth. A plain
+ * {@code IntBuffer} is composited onto in place. Any other destination,
+ * like a thread safe, dirty tracking or epoch cleared buffer, is
+ * composited through its {@code apply(...)}, so each row is read and
+ * written under its own locking and bookkeeping, without allocating.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public final class Compositor
+{
+	private Compositor()
+	{}
+
+	/**
+	 * Composites the entire source buffer onto the destination buffer.
+	 * Both buffers are expected to have the same dimensions.
+	 * @param src - the buffer to composite
+	 * @param dst - the buffer to composite onto
+	 * @param mode - the way the colors are combined
+	 * @since 1.1.0
+	 */
+	public static void composite(IntBuffer src, IntBuffer dst, BlendMode mode)
+	{
+		if (dst.getClass() != IntBuffer.class)
+		{
+			composite(src, 0, 0, dst.width, dst.height, dst, 0, 0, mode);
+			return;
+		}
+		int[] s = src.content();
+		int[] d = dst.content();
+		if (src.isPacked() && dst.isPacked())
+		{
+			compositeRow(s, src.offset, d, dst.offset, dst.length, mode);
+		}
+		else
+		{
+			for (int y=0; y<dst.height; y++)
+			{
+				compositeRow(s, src.index(0,y), d, dst.index(0,y), dst.width, mode);
+			}
+		}
+	}
+
+	/**
+	 * Composites a rectangle of the source buffer onto the destination
+	 * buffer. This method has no boundary detection. It is up to the user
+	 * to make sure both rectangles are within bounds.
+	 * @param src - the buffer to composite
+	 * @param sx - the left side of the source rectangle
+	 * @param sy - the top side of the source rectangle
+	 * @param w - the width of the rectangle
+	 * @param h - the height of the rectangle
+	 * @param dst - the buffer to composite onto
+	 * @param dx - the left side of the destination rectangle
+	 * @param dy - the top side of the destination rectangle
+	 * @param mode - the way the colors are combined
+	 * @since 1.1.0
+	 */
+	public static void composite(IntBuffer src, int sx, int sy, int w, int h,
+								 IntBuffer dst, int dx, int dy, BlendMode mode)
+	{
+		final int[] s = src.content();
+		if (dst.getClass() != IntBuffer.class)
+		{
+			dst.apply(dx, dy, w, h, (d, i, r) -> compositeRow(s, src.index(sx,sy+r), d, i, w, mode));
+			return;
+		}
+		int[] d = dst.content();
+		for (int r=0; r<h; r++)
+		{
+			compositeRow(s, src.index(sx,sy+r), d, dst.index(dx,dy+r), w, mode);
+		}
+	}
+
+	/**
+	 * Composites a run of source colors onto a run of destination colors.
+	 * The runs must not overlap unless they start at the same index.
+	 * @param src - the colors to composite
+	 * @param srcPos - the index of the first source color
+	 * @param dst - the colors to composite onto
+	 * @param dstPos - the index of the first destination color
+	 * @param length - the amount of colors to composite
+	 * @param mode - the way the colors are combined
+	 * @since 1.1.0
+	 */
+	public static void compositeRow(int[] src, int srcPos, int[] dst, int dstPos, int length, BlendMode mode)
+	{
+		switch (mode)
+		{
+		case SRC:
+			System.arraycopy(src, srcPos, dst, dstPos, length);
+			return;
+		case SRC_OVER:
+			srcOver(src, srcPos, dst, dstPos, length);
+			return;
+		case SRC_OVER_PREMULTIPLIED:
+			srcOverPremultiplied(src, srcPos, dst, dstPos, length);
+			return;
+		case ADD:
+			add(src, srcPos, dst, dstPos, length);
+			return;
+		case MULTIPLY:
+			multiply(src, srcPos, dst, dstPos, length);
+			return;
+		case SCREEN:
+			screen(src, srcPos, dst, dstPos, length);
+			return;
+		}
+	}
+
+	/*
+	 * straight alpha. the red and blue channels are blended in pairs,
+	 * the alpha is the usual a + d*(1-a)
+	 */
+	private static void srcOver(int[] src, int s, int[] dst, int d, int length)
+	{
+		for (int e=s+length; s<e; s++, d++)
+		{
+			int sc = src[s];
+			int sa = sc>>>24;
+			if (sa == 0) continue;
+			if (sa == 0xFF)
+			{
+				dst[d] = sc;
+				continue;
+			}
+			int dc = dst[d];
+			int a = sa + (sa>>>7);
+			int ia = 256 - a;
+			int rb = (((sc & 0x00FF00FF) * a + (dc & 0x00FF00FF) * ia) >>> 8) & 0x00FF00FF;
+			int g  = (((sc & 0x0000FF00) * a + (dc & 0x0000FF00) * ia) >>> 8) & 0x0000FF00;
+			int da = mul255(dc>>>24, 255 - sa);
+			dst[d] = (sa + da) << 24 | rb | g;
+		}
+	}
+
+	/*
+	 * premultiplied alpha. every channel, alpha included, is s + d*(1-a)
+	 * and the alpha and green channels are scaled as a pair
+	 */
+	private static void srcOverPremultiplied(int[] src, int s, int[] dst, int d, int length)
+	{
+		for (int e=s+length; s<e; s++, d++)
+		{
+			int sc = src[s];
+			int sa = sc>>>24;
+			if (sc == 0) continue;
+			if (sa == 0xFF)
+			{
+				dst[d] = sc;
+				continue;
+			}
+			int dc = dst[d];
+			int ia = 256 - (sa + (sa>>>7));
+			int rb = (((dc & 0x00FF00FF) * ia) >>> 8) & 0x00FF00FF;
+			int ag = ((((dc>>>8) & 0x00FF00FF) * ia) >>> 8) & 0x00FF00FF;
+			dst[d] = sc + ((ag << 8) | rb);
+		}
+	}
+
+	/*
+	 * saturating add in channel pairs. any pair that carries into its
+	 * ninth bit is filled with ones
+	 */
+	private static void add(int[] src, int s, int[] dst, int d, int length)
+	{
+		for (int e=s+length; s<e; s++, d++)
+		{
+			int sc = src[s];
+			int sa = sc>>>24;
+			if (sa == 0) continue;
+			int dc = dst[d];
+			int a = sa + (sa>>>7);
+			int rb = (((sc & 0x00FF00FF) * a) >>> 8) & 0x00FF00FF;
+			int ag = (sa << 16) | ((((sc & 0x0000FF00) * a) >>> 16) & 0xFF);
+			rb += dc & 0x00FF00FF;
+			ag += (dc>>>8) & 0x00FF00FF;
+			int rbc = rb & 0x01000100;
+			int agc = ag & 0x01000100;
+			rb = (rb | (rbc - (rbc>>>8))) & 0x00FF00FF;
+			ag = (ag | (agc - (agc>>>8))) & 0x00FF00FF;
+			dst[d] = (ag << 8) | rb;
+		}
+	}
+
+	/*
+	 * the source is faded to white by its alpha, then multiplied
+	 * with the destination per channel
+	 */
+	private static void multiply(int[] src, int s, int[] dst, int d, int length)
+	{
+		for (int e=s+length; s<e; s++, d++)
+		{
+			int sc = src[s];
+			int sa = sc>>>24;
+			if (sa == 0) continue;
+			int dc = dst[d];
+			int ia = 255 - sa;
+			int da = dc>>>24;
+			int r = mul255(mul255((sc>>>16) & 0xFF, sa) + ia, (dc>>>16) & 0xFF);
+			int g = mul255(mul255((sc>>> 8) & 0xFF, sa) + ia, (dc>>> 8) & 0xFF);
+			int b = mul255(mul255((sc     ) & 0xFF, sa) + ia, (dc     ) & 0xFF);
+			int a = sa + mul255(da, ia);
+			dst[d] = (a<<24) | (r<<16) | (g<<8) | b;
+		}
+	}
+
+	/*
+	 * d + s*(1-d), with the source faded to black by its alpha
+	 */
+	private static void screen(int[] src, int s, int[] dst, int d, int length)
+	{
+		for (int e=s+length; s<e; s++, d++)
+		{
+			int sc = src[s];
+			int sa = sc>>>24;
+			if (sa == 0) continue;
+			int dc = dst[d];
+			int dr = (dc>>>16) & 0xFF;
+			int dg = (dc>>> 8) & 0xFF;
+			int db = (dc     ) & 0xFF;
+			int da = dc>>>24;
+			int r = dr + mul255(mul255((sc>>>16) & 0xFF, sa), 255 - dr);
+			int g = dg + mul255(mul255((sc>>> 8) & 0xFF, sa), 255 - dg);
+			int b = db + mul255(mul255((sc     ) & 0xFF, sa), 255 - db);
+			int a = da + mul255(sa, 255 - da);
+			dst[d] = (a<<24) | (r<<16) | (g<<8) | b;
+		}
+	}
+
+	/*
+	 * a*b/255, correctly rounded for 8 bit channels
+	 */
+	private static int mul255(int a, int b)
+	{
+		int t = a*b + 128;
+		return (t + (t>>>8)) >>> 8;
+	}
+}
@@ -0,0 +1,439 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+/**
+ * A {@code FloatBuffer} that is used as a depth buffer. Smaller values are
+ * closer to the viewer, and a fragment passes the depth test when its depth
+ * is less than the stored depth. The test and the write are fused into a
+ * single call, for single fragments as well as for whole spans.
+ * <p>
+ * The buffer is divided into tiles of 8 by 8 elements, and each tile keeps
+ * a bound on the smallest and largest depth it holds. Spans and rectangles
+ * that lie behind the largest depth of a tile are rejected without reading
+ * the tile, and spans in front of its smallest depth are written without
+ * testing. Writes only widen the bounds. Bounds that have become loose are
+ * tightened again when a tile is queried with {@code isOccluded(...)}.
+ * <p>
+ * Writes made directly into the content array bypass the tile bounds.
+ * Every tile is therefore loosened when {@code content()} hands out the
+ * array, and writes made through it are seen by the next depth test.
+ * Don't hold on to the array across depth tests, call {@code content()}
+ * again after testing.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public class DepthBuffer extends FloatBuffer
+{
+	private static final int TILE_SHIFT = 3;
+	private static final int TILE_MASK = (1<<TILE_SHIFT) - 1;
+	private float[] tileMin;
+	private float[] tileMax;
+	private boolean[] loose;
+	private int tilesX;
+
+	/**
+	 * Creates a depth buffer with the given dimensions. Each
+	 * element of this buffer will be defaulted to positive
+	 * infinity, so every first fragment passes.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @since 1.1.0
+	 */
+	public DepthBuffer(int width, int height)
+	{
+		super(width, height, Float.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Creates a depth buffer with the given dimensions and
+	 * initial depth.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @param init - the initial depth
+	 * @since 1.1.0
+	 */
+	public DepthBuffer(int width, int height, float init)
+	{
+		super(width, height, init);
+	}
+
+	@Override
+	protected void createBuffer(int width, int height)
+	{
+		super.createBuffer(width, height);
+		tilesX = (width + TILE_MASK) >> TILE_SHIFT;
+		int tiles = tilesX * ((height + TILE_MASK) >> TILE_SHIFT);
+		tileMin = new float[tiles];
+		tileMax = new float[tiles];
+		loose = new boolean[tiles];
+		loosenAll();
+	}
+
+	/**
+	 * Returns true if the given depth passes the depth test at the
+	 * specified coordinates. This method has no boundary detection.
+	 * It is up to the user to make sure the index is within bounds.
+	 * @param x - the location along the width of the buffer
+	 * @param y - the location along the height of the buffer
+	 * @param z - the depth of the fragment
+	 * @return true if the fragment is closer than the stored depth
+	 * @since 1.1.0
+	 */
+	public boolean test(int x, int y, float z)
+	{
+		return z < values[x + y*width];
+	}
+
+	/**
+	 * Stores the given depth at the specified coordinates if it passes
+	 * the depth test. This method has no boundary detection. It is up to
+	 * the user to make sure the index is within bounds.
+	 * @param x - the location along the width of the buffer
+	 * @param y - the location along the height of the buffer
+	 * @param z - the depth of the fragment
+	 * @return true if the fragment passed and its depth was stored
+	 * @since 1.1.0
+	 */
+	public boolean testAndSet(int x, int y, float z)
+	{
+		int i = x + y*width;
+		if (!(z < values[i])) return false;
+		values[i] = z;
+		int t = tile(x, y);
+		if (z < tileMin[t]) tileMin[t] = z;
+		loose[t] = true;
+		return true;
+	}
+
+	/**
+	 * Tests a horizontal span of fragments against the buffer and
+	 * stores the depths that pass. The depth changes linearly along the
+	 * span. Parts of the span that lie behind a whole tile are skipped.
+	 * This method has no boundary detection. It is up to the user to
+	 * make sure the span is within bounds.
+	 * @param x - the left side of the span
+	 * @param y - the row of the span
+	 * @param w - the amount of fragments in the span
+	 * @param z - the depth of the first fragment
+	 * @param dz - the change in depth from one fragment to the next
+	 * @return the amount of fragments that passed
+	 * @since 1.1.0
+	 */
+	public int testAndSetSpan(int x, int y, int w, float z, float dz)
+	{
+		int passed = 0;
+		int row = y*width;
+		for (int s=0; s<w; )
+		{
+			int px = x + s;
+			int t = tile(px, y);
+			int e = Math.min(w, s + (TILE_MASK+1) - (px & TILE_MASK));
+			float z0 = z + dz*s;
+			float z1 = z + dz*(e-1);
+			float near = Math.min(z0, z1);
+			float far = Math.max(z0, z1);
+
+			if (near >= tileMax[t])
+			{
+				s = e;
+				continue;
+			}
+
+			int count = 0;
+			if (far < tileMin[t])
+			{
+				count = e - s;
+				for (int i=row+px; s<e; s++, i++) values[i] = z + dz*s;
+			}
+			else
+			{
+				for (int i=row+px; s<e; s++, i++)
+				{
+					float fz = z + dz*s;
+					if (fz < values[i])
+					{
+						values[i] = fz;
+						count++;
+					}
+				}
+			}
+			if (count == 0) continue;
+			if (near < tileMin[t]) tileMin[t] = near;
+			loose[t] = true;
+			passed += count;
+		}
+		return passed;
+	}
+
+	/**
+	 * Tests a horizontal span of fragments against the buffer without
+	 * storing any depth. The result of each fragment is placed in the
+	 * given mask, starting at index 0. The depth changes linearly along
+	 * the span. This method has no boundary detection. It is up to the
+	 * user to make sure the span is within bounds.
+	 * @param x - the left side of the span
+	 * @param y - the row of the span
+	 * @param w - the amount of fragments in the span
+	 * @param z - the depth of the first fragment
+	 * @param dz - the change in depth from one fragment to the next
+	 * @param mask - an array of at least {@code w} elements to receive the results
+	 * @return the amount of fragments that passed
+	 * @since 1.1.0
+	 */
+	public int testSpan(int x, int y, int w, float z, float dz, boolean[] mask)
+	{
+		int passed = 0;
+		int row = y*width;
+		for (int s=0; s<w; )
+		{
+			int px = x + s;
+			int t = tile(px, y);
+			int e = Math.min(w, s + (TILE_MASK+1) - (px & TILE_MASK));
+			float near = Math.min(z + dz*s, z + dz*(e-1));
+
+			if (near >= tileMax[t])
+			{
+				for (; s<e; s++) mask[s] = false;
+				continue;
+			}
+			for (int i=row+px; s<e; s++, i++)
+			{
+				boolean pass = (z + dz*s) < values[i];
+				mask[s] = pass;
+				if (pass) passed++;
+			}
+		}
+		return passed;
+	}
+
+	/**
+	 * Returns true if nothing at the given depth or further away can
+	 * be visible within the given rectangle. Use the nearest depth of an
+	 * object's screen bounds to skip the object entirely. Only the tile
+	 * bounds are read, and loose bounds are tightened first. This method
+	 * has no boundary detection. It is up to the user to make sure the
+	 * rectangle is within bounds.
+	 * @param x - the left side of the rectangle
+	 * @param y - the top side of the rectangle
+	 * @param w - the width of the rectangle
+	 * @param h - the height of the rectangle
+	 * @param z - the nearest depth of the object to test
+	 * @return true if the rectangle is occluded at the given depth
+	 * @since 1.1.0
+	 */
+	public boolean isOccluded(int x, int y, int w, int h, float z)
+	{
+		if (w<1 || h<1) return true;
+		int tx0 = x >> TILE_SHIFT;
+		int tx1 = (x+w-1) >> TILE_SHIFT;
+		int ty0 = y >> TILE_SHIFT;
+		int ty1 = (y+h-1) >> TILE_SHIFT;
+		for (int ty=ty0; ty<=ty1; ty++)
+		{
+			for (int t=tx0+ty*tilesX, e=tx1+ty*tilesX; t<=e; t++)
+			{
+				if (z >= tileMax[t]) continue;
+				if (!loose[t]) return false;
+				tighten(t);
+				if (z < tileMax[t]) return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns true if nothing at the given depth or further away can
+	 * be visible along the given span. See {@code isOccluded(...)}.
+	 * @param x - the left side of the span
+	 * @param y - the row of the span
+	 * @param w - the amount of fragments in the span
+	 * @param z - the nearest depth of the span
+	 * @return true if the span is occluded at the given depth
+	 * @since 1.1.0
+	 */
+	public boolean isSpanOccluded(int x, int y, int w, float z)
+	{
+		return isOccluded(x, y, w, 1, z);
+	}
+
+	// ==========================================
+
+	@Override
+	public void plot(float[] array)
+	{
+		super.plot(array);
+		loosenAll();
+	}
+
+	/**
+	 * Returns the array content of the buffer. The bounds of every 
+	 * tile are dropped, so writes made through the array are taken 
+	 * into account by the next depth test.
+	 * @return the array content of the buffer
+	 * @since 1.1.0
+	 */
+	@Override
+	public float[] content()
+	{
+		loosenAll();
+		return values;
+	}
+
+	@Override
+	public void plot(int index, float value)
+	{
+		super.plot(index, value);
+		widen(tile(index % width, index / width), value);
+	}
+
+	@Override
+	public void plot(int x, int y, float value)
+	{
+		super.plot(x, y, value);
+		widen(tile(x, y), value);
+	}
+
+	@Override
+	public void clear(float value)
+	{
+		super.clear(value);
+		for (int t=tileMin.length-1; t>=0; t--)
+		{
+			tileMin[t] = value;
+			tileMax[t] = value;
+			loose[t] = false;
+		}
+	}
+
+	@Override
+	public void fillRect(int x, int y, int w, int h, float value)
+	{
+		super.fillRect(x, y, w, h, value);
+		if (w<1 || h<1) return;
+		for (int ty=y>>TILE_SHIFT, ey=(y+h-1)>>TILE_SHIFT; ty<=ey; ty++)
+		{
+			for (int tx=x>>TILE_SHIFT, ex=(x+w-1)>>TILE_SHIFT; tx<=ex; tx++)
+			{
+				widen(tx + ty*tilesX, value);
+			}
+		}
+	}
+
+	@Override
+	public void blit(FloatBuffer src, int sx, int sy, int w, int h, int dx, int dy)
+	{
+		super.blit(src, sx, sy, w, h, dx, dy);
+		loosen(dx, dy, w, h);
+	}
+
+	@Override
+	public void copyRegion(int sx, int sy, int w, int h, int dx, int dy)
+	{
+		super.copyRegion(sx, sy, w, h, dx, dy);
+		loosen(dx, dy, w, h);
+	}
+
+	/**
+	 * Returns a view onto a rectangle of this buffer. Writes through 
+	 * the view widen or loosen the tile bounds of this buffer. This 
+	 * method has no boundary detection. It is up to the user to make 
+	 * sure the rectangle is within bounds.
+	 * @param x - the left side of the view
+	 * @param y - the top side of the view
+	 * @param w - the width of the view
+	 * @param h - the height of the view
+	 * @return a view onto a rectangle of this buffer
+	 * @since 1.1.0
+	 */
+	@Override
+	public FloatBuffer view(int x, int y, int w, int h)
+	{
+		return new FloatView(this, x, y, w, h);
+	}
+
+	@Override
+	public DepthBuffer copy()
+	{
+		DepthBuffer buff = new DepthBuffer(width,height);
+		System.arraycopy(values, 0, buff.values, 0, length);
+		System.arraycopy(tileMin, 0, buff.tileMin, 0, tileMin.length);
+		System.arraycopy(tileMax, 0, buff.tileMax, 0, tileMax.length);
+		System.arraycopy(loose, 0, buff.loose, 0, loose.length);
+		return buff;
+	}
+
+	// ==========================================
+
+	/*
+	 * index of the tile the given coordinate is in
+	 */
+	private int tile(int x, int y)
+	{
+		return (x>>TILE_SHIFT) + (y>>TILE_SHIFT)*tilesX;
+	}
+
+	/*
+	 * include a depth in the bounds of a tile
+	 */
+	private void widen(int t, float value)
+	{
+		if (value < tileMin[t]) tileMin[t] = value;
+		if (value > tileMax[t]) tileMax[t] = value;
+		loose[t] = true;
+	}
+
+	/*
+	 * drop the bounds of the tiles in the given rectangle
+	 */
+	private void loosen(int x, int y, int w, int h)
+	{
+		if (w<1 || h<1) return;
+		for (int ty=y>>TILE_SHIFT, ey=(y+h-1)>>TILE_SHIFT; ty<=ey; ty++)
+		{
+			for (int tx=x>>TILE_SHIFT, ex=(x+w-1)>>TILE_SHIFT; tx<=ex; tx++)
+			{
+				int t = tx + ty*tilesX;
+				tileMin[t] = Float.NEGATIVE_INFINITY;
+				tileMax[t] = Float.POSITIVE_INFINITY;
+				loose[t] = true;
+			}
+		}
+	}
+
+	/*
+	 * drop the bounds of every tile
+	 */
+	private void loosenAll()
+	{
+		loosen(0, 0, width, height);
+	}
+
+	/*
+	 * recompute the exact bounds of a tile from its depths
+	 */
+	private void tighten(int t)
+	{
+		int x0 = (t % tilesX) << TILE_SHIFT;
+		int y0 = (t / tilesX) << TILE_SHIFT;
+		int x1 = Math.min(x0 + TILE_MASK + 1, width);
+		int y1 = Math.min(y0 + TILE_MASK + 1, height);
+		float min = Float.POSITIVE_INFINITY;
+		float max = Float.NEGATIVE_INFINITY;
+		for (int y=y0; y<y1; y++)
+		{
+			for (int i=x0+y*width, e=x1+y*width; i<e; i++)
+			{
+				float z = values[i];
+				if (z < min) min = z;
+				if (z > max) max = z;
+			}
+		}
+		tileMin[t] = min;
+		tileMax[t] = max;
+		loose[t] = false;
+	}
+}
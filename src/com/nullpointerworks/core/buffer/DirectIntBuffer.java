@@ -0,0 +1,219 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A buffer implementation that stores its {@code int} values in native
+ * memory outside of the Java heap. Large pixel and depth buffers held
+ * in this buffer are not scanned or moved by the garbage collector.
+ * The native memory is released once the garbage collector finds the
+ * native buffer unreachable, which {@code free()} allows right away.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public class DirectIntBuffer extends AbstractBuffer<DirectIntBuffer>
+{
+	protected java.nio.ByteBuffer memory;
+	protected java.nio.IntBuffer values;
+	private int[] row;
+
+	/**
+	 * Creates a buffer with the given dimensions. Each
+	 * element of this buffer will be defaulted to 0.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @since 1.1.0
+	 */
+	public DirectIntBuffer(int width, int height)
+	{
+		createBuffer(width,height);
+	}
+
+	/**
+	 * Creates a buffer with the given dimensions and
+	 * initial value.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @param init - the initial value
+	 * @since 1.1.0
+	 */
+	public DirectIntBuffer(int width, int height, int init)
+	{
+		createBuffer(width,height);
+		clear(init);
+	}
+
+	/**
+	 * Creates a buffer with the given dimensions.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @since 1.1.0
+	 */
+	protected void createBuffer(int width, int height)
+	{
+		setBuffer(width,height);
+		memory = java.nio.ByteBuffer.allocateDirect(Math.multiplyExact(length, Integer.BYTES));
+		memory.order(ByteOrder.nativeOrder());
+		values = memory.asIntBuffer();
+	}
+
+	/**
+     * Copies the content of the given array onto the buffer.
+     * @param array - the array of values to be copied
+	 * @since 1.1.0
+     */
+    public void plot(int[] array)
+    {
+    	values.position(0);
+    	values.put(array, 0, Math.min(array.length, length));
+    	values.position(0);
+    }
+
+    /**
+     * Places the given value onto the buffer at the
+     * specified index. This method has no boundary detection.
+     * It is up to the user to make sure the index is within
+     * bounds.
+	 * @param index - the index in the buffer
+	 * @param value - the value to be placed
+	 * @since 1.1.0
+     */
+    public void plot(int index, int value)
+	{
+		values.put(index, value);
+	}
+
+    /**
+     * Places the given value onto the buffer at the specified
+     * coordinates. This method has no boundary detection.
+     * It is up to the user to make sure the index is within
+     * bounds.
+	 * @param x - the location along the width of the buffer
+	 * @param y - the location along the height of the buffer
+	 * @param value - the value to be placed
+	 * @since 1.1.0
+     */
+	public void plot(int x, int y, int value)
+	{
+		values.put(x + y*width, value);
+	}
+
+	/**
+	 * Set the value of the entire buffer to the given value. A row 
+	 * of the value is kept, and copied onto the buffer in bulk.
+	 * @param value - the value to clear the buffer with
+	 * @since 1.1.0
+	 */
+	public void clear(int value)
+	{
+		if (row == null) row = new int[width];
+		Arrays.fill(row, value);
+		values.position(0);
+		for (int l=length; l>0; l-=width) values.put(row, 0, Math.min(width, l));
+		values.position(0);
+	}
+
+	/**
+	 * Returns the native memory content of the buffer. The
+	 * returned object is only valid until {@code free()} is
+	 * invoked.
+	 * @return the native memory content of the buffer
+	 * @since 1.1.0
+	 */
+	public java.nio.IntBuffer content()
+	{
+		return values;
+	}
+
+	/**
+	 * Copies the content of the buffer into the given array.
+	 * Only as many values as the array can hold are copied.
+	 * @param array - the array to receive the values
+	 * @since 1.1.0
+	 */
+	public void grab(int[] array)
+	{
+		values.position(0);
+		values.get(array, 0, Math.min(array.length, length));
+		values.position(0);
+	}
+
+	/**
+	 * Take a value from the buffer at the specified index. This
+	 * method has no boundary detection. It is up to the user to
+	 * make sure the index is within bounds.
+	 * @param index - an index in the buffer
+	 * @return the value from the buffer at the specified index
+	 * @since 1.1.0
+	 */
+	public int grab(int index)
+	{
+		return values.get(index);
+	}
+
+	/**
+	 * Take a value from the buffer at the specified coordinates.
+	 * This method has no boundary detection. It is up to the user
+	 * to make sure the index is within bounds.
+	 * @param x - the location along the width of the buffer
+	 * @param y - the location along the height of the buffer
+	 * @return the value from the buffer at the specified coordinates
+	 * @since 1.1.0
+	 */
+	public int grab(int x, int y)
+	{
+		return values.get(x + y*width);
+	}
+
+	/**
+	 * Take a value from the buffer at the specified UV mapping
+	 * coordinates. The parameter W is a depth scaling value
+	 * that can be kept at 1 if no depth correction is performed.
+	 * This method has no boundary detection. It is up to the user
+	 * to make sure the index is within bounds.
+	 * @param u - a factor [0-1] along the width of the buffer
+	 * @param v - a factor [0-1] along the height of the buffer
+	 * @param w - the depth scaling parameter
+	 * @return the value from the buffer at the found coordinates
+	 * @since 1.1.0
+	 */
+	public int grab(float u, float v, float w)
+	{
+		float sc = 0.999f*w;
+		int x = (int)(sc*u*width);
+		int y = (int)(sc*v*height);
+		return values.get(x + y*width);
+	}
+
+	/**
+	 * Drops the native memory of this buffer, so it's released once 
+	 * nothing else refers to it. The buffer, and any object returned 
+	 * by {@code content()}, must not be used after this method has 
+	 * been invoked.
+	 * @since 1.1.0
+	 */
+	@Override
+	public void free()
+	{
+		values = null;
+		memory = null;
+		row = null;
+	}
+
+	@Override
+	public DirectIntBuffer copy()
+	{
+		DirectIntBuffer buff = new DirectIntBuffer(width,height);
+		java.nio.ByteBuffer src = memory.duplicate();
+		src.clear();
+		buff.memory.put(src);
+		buff.memory.clear();
+		return buff;
+	}
+}
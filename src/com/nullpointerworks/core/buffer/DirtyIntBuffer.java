@@ -0,0 +1,258 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+import java.awt.Rectangle;
+
+/**
+ * An {@code IntBuffer} that keeps track of the regions that have been
+ * written to. The buffer is divided into bands of 32 rows, and each band
+ * records the bounding box of the values placed in it. The dirty regions
+ * can be handed to {@code DrawCanvas.swap(int[], Rectangle[])} so only
+ * the changed parts of a frame are copied and repainted.
+ * <pre>
+ * window.swap(buffer.content(), buffer.getDirtyRegions());
+ * buffer.clearDirty();
+ * </pre>
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public class DirtyIntBuffer extends IntBuffer
+{
+	private static final int BAND_SHIFT = 5;
+	private int[] minX;
+	private int[] maxX;
+	private int[] minY;
+	private int[] maxY;
+
+	/**
+	 * Creates a buffer with the given dimensions. Each
+	 * element of this buffer will be defaulted to 0.
+	 * The buffer starts out entirely dirty.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @since 1.1.0
+	 */
+	public DirtyIntBuffer(int width, int height)
+	{
+		super(width, height);
+	}
+
+	/**
+	 * Creates a buffer with the given dimensions and
+	 * initial value. The buffer starts out entirely dirty.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @param init - the initial value
+	 * @since 1.1.0
+	 */
+	public DirtyIntBuffer(int width, int height, int init)
+	{
+		super(width, height, init);
+	}
+
+	@Override
+	protected void createBuffer(int width, int height)
+	{
+		super.createBuffer(width, height);
+		int bands = (height + (1<<BAND_SHIFT) - 1) >> BAND_SHIFT;
+		minX = new int[bands];
+		maxX = new int[bands];
+		minY = new int[bands];
+		maxY = new int[bands];
+		clearDirty();
+		markAll();
+	}
+
+	/**
+	 * Returns the regions that have been written to since the last
+	 * call to {@code clearDirty()}. Each dirty band of rows yields
+	 * one rectangle. An empty array is returned if nothing changed.
+	 * @return the regions that have been written to
+	 * @since 1.1.0
+	 */
+	public Rectangle[] getDirtyRegions()
+	{
+		int count = 0;
+		for (int b=0,l=minX.length; b<l; b++)
+		{
+			if (minX[b] <= maxX[b]) count++;
+		}
+
+		Rectangle[] regions = new Rectangle[count];
+		for (int b=0,i=0,l=minX.length; b<l; b++)
+		{
+			if (minX[b] > maxX[b]) continue;
+			regions[i++] = new Rectangle(minX[b], minY[b], maxX[b]-minX[b]+1, maxY[b]-minY[b]+1);
+		}
+		return regions;
+	}
+
+	/**
+	 * Returns true if any value has been written to the buffer
+	 * since the last call to {@code clearDirty()}.
+	 * @return true if any value has been written to the buffer
+	 * @since 1.1.0
+	 */
+	public boolean isDirty()
+	{
+		for (int b=minX.length-1; b>=0; b--)
+		{
+			if (minX[b] <= maxX[b]) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Marks the entire buffer as clean. Invoke this after the dirty
+	 * regions have been presented.
+	 * @since 1.1.0
+	 */
+	public void clearDirty()
+	{
+		for (int b=minX.length-1; b>=0; b--)
+		{
+			minX[b] = Integer.MAX_VALUE;
+			maxX[b] = Integer.MIN_VALUE;
+			minY[b] = Integer.MAX_VALUE;
+			maxY[b] = Integer.MIN_VALUE;
+		}
+	}
+
+	/**
+	 * Marks the given rectangle as dirty. This method has no
+	 * boundary detection. It is up to the user to make sure the
+	 * rectangle is within bounds.
+	 * @param x - the left side of the rectangle
+	 * @param y - the top side of the rectangle
+	 * @param w - the width of the rectangle
+	 * @param h - the height of the rectangle
+	 * @since 1.1.0
+	 */
+	public void markDirty(int x, int y, int w, int h)
+	{
+		if (w<1 || h<1) return;
+		int x2 = x+w-1;
+		int y2 = y+h-1;
+		for (int b=y>>BAND_SHIFT, e=y2>>BAND_SHIFT; b<=e; b++)
+		{
+			int top = b<<BAND_SHIFT;
+			int bottom = top + (1<<BAND_SHIFT) - 1;
+			if (x < minX[b]) minX[b] = x;
+			if (x2 > maxX[b]) maxX[b] = x2;
+			int y1 = (y > top)? y: top;
+			int yb = (y2 < bottom)? y2: bottom;
+			if (y1 < minY[b]) minY[b] = y1;
+			if (yb > maxY[b]) maxY[b] = yb;
+		}
+	}
+
+	// ==========================================
+
+	@Override
+	public void plot(int[] array)
+	{
+		super.plot(array);
+		markAll();
+	}
+
+	@Override
+	public void plot(int index, int value)
+	{
+		super.plot(index, value);
+		mark(index % width, index / width);
+	}
+
+	@Override
+	public void plot(int x, int y, int value)
+	{
+		super.plot(x, y, value);
+		mark(x, y);
+	}
+
+	@Override
+	public void clear(int value)
+	{
+		super.clear(value);
+		markAll();
+	}
+
+	@Override
+	public void fillRect(int x, int y, int w, int h, int value)
+	{
+		super.fillRect(x, y, w, h, value);
+		markDirty(x, y, w, h);
+	}
+
+	@Override
+	public void blit(IntBuffer src, int sx, int sy, int w, int h, int dx, int dy)
+	{
+		super.blit(src, sx, sy, w, h, dx, dy);
+		markDirty(dx, dy, w, h);
+	}
+
+	@Override
+	public void copyRegion(int sx, int sy, int w, int h, int dx, int dy)
+	{
+		super.copyRegion(sx, sy, w, h, dx, dy);
+		markDirty(dx, dy, w, h);
+	}
+
+	@Override
+	public void apply(int x, int y, int w, int h, IntRowOperator op)
+	{
+		super.apply(x, y, w, h, op);
+		markDirty(x, y, w, h);
+	}
+
+	/**
+	 * Returns a view onto a rectangle of this buffer. Writes through 
+	 * the view are marked dirty in this buffer. This method has no 
+	 * boundary detection. It is up to the user to make sure the 
+	 * rectangle is within bounds.
+	 * @param x - the left side of the view
+	 * @param y - the top side of the view
+	 * @param w - the width of the view
+	 * @param h - the height of the view
+	 * @return a view onto a rectangle of this buffer
+	 * @since 1.1.0
+	 */
+	@Override
+	public IntBuffer view(int x, int y, int w, int h)
+	{
+		return new IntView(this, x, y, w, h);
+	}
+
+	@Override
+	public DirtyIntBuffer copy()
+	{
+		DirtyIntBuffer buff = new DirtyIntBuffer(width,height);
+		buff.plot(this.content());
+		return buff;
+	}
+
+	// ==========================================
+
+	/*
+	 * grow the bounding box of the band the given coordinate is in
+	 */
+	private void mark(int x, int y)
+	{
+		int b = y>>BAND_SHIFT;
+		if (x < minX[b]) minX[b] = x;
+		if (x > maxX[b]) maxX[b] = x;
+		if (y < minY[b]) minY[b] = y;
+		if (y > maxY[b]) maxY[b] = y;
+	}
+
+	/*
+	 * mark the whole buffer as dirty
+	 */
+	private void markAll()
+	{
+		markDirty(0, 0, width, height);
+	}
+}
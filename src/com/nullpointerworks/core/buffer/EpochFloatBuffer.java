@@ -0,0 +1,224 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+import java.util.Arrays;
+
+/**
+ * A {@code FloatBuffer} that clears in constant time. Clearing only starts
+ * a new epoch. The content array is divided into tiles of 64 consecutive
+ * elements, and each tile is tagged with the epoch it was last written in.
+ * Elements of a tile from an older epoch read as the clear value, and the
+ * tile is filled with the clear value the first time it's written to. The
+ * cost of a clear is therefore only paid for the tiles that are touched.
+ * <p>
+ * Methods that hand out or bulk copy the content array, like
+ * {@code content()}, fill every stale tile first.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public class EpochFloatBuffer extends FloatBuffer
+{
+	private static final int TILE_SHIFT = 6;
+	private int[] tags;
+	private int epoch;
+	private float clearValue;
+
+	/**
+	 * Creates a buffer with the given dimensions. Each
+	 * element of this buffer will be defaulted to 0.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @since 1.1.0
+	 */
+	public EpochFloatBuffer(int width, int height)
+	{
+		super(width, height);
+	}
+
+	/**
+	 * Creates a buffer with the given dimensions and
+	 * initial value.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @param init - the initial value
+	 * @since 1.1.0
+	 */
+	public EpochFloatBuffer(int width, int height, float init)
+	{
+		super(width, height, init);
+	}
+
+	@Override
+	protected void createBuffer(int width, int height)
+	{
+		super.createBuffer(width, height);
+		tags = new int[(length + (1<<TILE_SHIFT) - 1) >>> TILE_SHIFT];
+		epoch = 0;
+		clearValue = 0f;
+	}
+
+	/**
+	 * Set the value of the entire buffer to the given value. Only
+	 * a new epoch is started, no elements are written.
+	 * @param value - the value to clear the buffer with
+	 * @since 1.1.0
+	 */
+	@Override
+	public void clear(float value)
+	{
+		clearValue = value;
+		if (epoch == Integer.MAX_VALUE)
+		{
+			super.clear(value);
+			Arrays.fill(tags, 0);
+			epoch = 0;
+			return;
+		}
+		epoch++;
+	}
+
+	@Override
+	public void plot(float[] array)
+	{
+		refreshAll();
+		super.plot(array);
+	}
+
+	@Override
+	public void plot(int index, float value)
+	{
+		refresh(index >>> TILE_SHIFT);
+		values[index] = value;
+	}
+
+	@Override
+	public void plot(int x, int y, float value)
+	{
+		plot(x + y*width, value);
+	}
+
+	@Override
+	public float[] content()
+	{
+		refreshAll();
+		return values;
+	}
+
+	@Override
+	public float grab(int index)
+	{
+		return (tags[index >>> TILE_SHIFT] == epoch)? values[index]: clearValue;
+	}
+
+	@Override
+	public float grab(int x, int y)
+	{
+		return grab(x + y*width);
+	}
+
+	@Override
+	public float grab(float u, float v, float w)
+	{
+		float sc = 0.999f*w;
+		int x = (int)(sc*u*width);
+		int y = (int)(sc*v*height);
+		return grab(x + y*width);
+	}
+
+	@Override
+	public void fillRect(int x, int y, int w, int h, float value)
+	{
+		refreshRect(x, y, w, h);
+		super.fillRect(x, y, w, h, value);
+	}
+
+	@Override
+	public void blit(FloatBuffer src, int sx, int sy, int w, int h, int dx, int dy)
+	{
+		if (src == this)
+		{
+			copyRegion(sx, sy, w, h, dx, dy);
+			return;
+		}
+		refreshRect(dx, dy, w, h);
+		super.blit(src, sx, sy, w, h, dx, dy);
+	}
+
+	@Override
+	public void copyRegion(int sx, int sy, int w, int h, int dx, int dy)
+	{
+		refreshRect(sx, sy, w, h);
+		refreshRect(dx, dy, w, h);
+		super.copyRegion(sx, sy, w, h, dx, dy);
+	}
+
+	@Override
+	public void free()
+	{
+		super.free();
+		tags = null;
+	}
+
+	/**
+	 * Returns a view onto a rectangle of this buffer. Reads and 
+	 * writes through the view go through the epoch tiles of this 
+	 * buffer. This method has no boundary detection. It is up to the 
+	 * user to make sure the rectangle is within bounds.
+	 * @param x - the left side of the view
+	 * @param y - the top side of the view
+	 * @param w - the width of the view
+	 * @param h - the height of the view
+	 * @return a view onto a rectangle of this buffer
+	 * @since 1.1.0
+	 */
+	@Override
+	public FloatBuffer view(int x, int y, int w, int h)
+	{
+		return new FloatView(this, x, y, w, h);
+	}
+
+	@Override
+	public EpochFloatBuffer copy()
+	{
+		EpochFloatBuffer buff = new EpochFloatBuffer(width,height);
+		buff.plot(this.content());
+		return buff;
+	}
+
+	// ==========================================
+
+	/*
+	 * fill a tile from an older epoch with the clear value
+	 */
+	private void refresh(int tile)
+	{
+		if (tags[tile] == epoch) return;
+		int from = tile << TILE_SHIFT;
+		Arrays.fill(values, from, Math.min(from + (1<<TILE_SHIFT), length), clearValue);
+		tags[tile] = epoch;
+	}
+
+	/*
+	 * refresh the tiles covered by each row of a rectangle
+	 */
+	private void refreshRect(int x, int y, int w, int h)
+	{
+		if (w < 1) return;
+		for (int i=x+y*width, e=i+h*width; i<e; i+=width)
+		{
+			for (int t=i>>>TILE_SHIFT, l=(i+w-1)>>>TILE_SHIFT; t<=l; t++) refresh(t);
+		}
+	}
+
+	/*
+	 * refresh every tile
+	 */
+	private void refreshAll()
+	{
+		for (int t=tags.length-1; t>=0; t--) refresh(t);
+	}
+}
@@ -0,0 +1,28 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+/**
+ * This enumeration contains the ways a {@code Sampler} filters the 
+ * texels around a texture coordinate. Items include; NEAREST and 
+ * BILINEAR.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public enum FilterMode
+{
+	/**
+	 * Take the single texel the coordinate falls in.
+	 * @since 1.1.0
+	 */
+	NEAREST,
+	/**
+	 * Blend the four texels around the coordinate, weighted 
+	 * by the distance to their centers.
+	 * @since 1.1.0
+	 */
+	BILINEAR
+}
@@ -0,0 +1,126 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+/**
+ * A view onto a rectangle of a {@code FloatBuffer} subclass that keeps its own
+ * bookkeeping, like dirty regions, epoch tiles or depth bounds. Instead
+ * of writing to the shared array directly, every read and write is
+ * forwarded to the parent at translated coordinates. Index based methods
+ * take the index in the shared array, see {@code index(int, int)}.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+final class FloatView extends FloatBuffer
+{
+	private final FloatBuffer parent;
+	private final int ox;
+	private final int oy;
+	
+	/**
+	 * Creates a view onto the given rectangle of the parent.
+	 * @param parent - the buffer to forward to
+	 * @param x - the left side of the view in the parent
+	 * @param y - the top side of the view in the parent
+	 * @param w - the width of the view
+	 * @param h - the height of the view
+	 * @since 1.1.0
+	 */
+	FloatView(FloatBuffer parent, int x, int y, int w, int h)
+	{
+		super(w, h, parent.values);
+		setView(parent, x, y);
+		this.parent = parent;
+		ox = x;
+		oy = y;
+	}
+	
+	@Override
+	public void plot(float[] array)
+	{
+		int l = Math.min(array.length, length);
+		int rows = l / width;
+		parent.blit(new FloatBuffer(width, rows, array), 0, 0, width, rows, ox, oy);
+		for (int i=rows*width, x=0; i<l; i++, x++) parent.plot(ox+x, oy+rows, array[i]);
+	}
+	
+	@Override
+	public void plot(int index, float value)
+	{
+		parent.plot(index, value);
+	}
+	
+	@Override
+	public void plot(int x, int y, float value)
+	{
+		parent.plot(ox+x, oy+y, value);
+	}
+	
+	@Override
+	public void clear(float value)
+	{
+		parent.fillRect(ox, oy, width, height, value);
+	}
+	
+	@Override
+	public float[] content()
+	{
+		return parent.content();
+	}
+	
+	@Override
+	public float grab(int index)
+	{
+		return parent.grab(index);
+	}
+	
+	@Override
+	public float grab(int x, int y)
+	{
+		return parent.grab(ox+x, oy+y);
+	}
+	
+	@Override
+	public float grab(float u, float v, float w)
+	{
+		float sc = 0.999f*w;
+		int x = (int)(sc*u*width);
+		int y = (int)(sc*v*height);
+		return parent.grab(ox+x, oy+y);
+	}
+	
+	@Override
+	public void fillRect(int x, int y, int w, int h, float value)
+	{
+		parent.fillRect(ox+x, oy+y, w, h, value);
+	}
+	
+	@Override
+	public void blit(FloatBuffer src, int sx, int sy, int w, int h, int dx, int dy)
+	{
+		parent.blit(src, sx, sy, w, h, ox+dx, oy+dy);
+	}
+	
+	@Override
+	public void copyRegion(int sx, int sy, int w, int h, int dx, int dy)
+	{
+		parent.copyRegion(ox+sx, oy+sy, w, h, ox+dx, oy+dy);
+	}
+	
+	@Override
+	public FloatBuffer view(int x, int y, int w, int h)
+	{
+		return parent.view(ox+x, oy+y, w, h);
+	}
+	
+	@Override
+	public FloatBuffer copy()
+	{
+		FloatBuffer buff = new FloatBuffer(width, height);
+		buff.blit(this, 0, 0, width, height, 0, 0);
+		return buff;
+	}
+}
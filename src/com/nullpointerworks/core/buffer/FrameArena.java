@@ -0,0 +1,156 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+import java.util.ArrayList;
+
+/**
+ * Hands out temporary buffers for the duration of a single frame. All 
+ * buffers obtained from the arena are returned to its {@code BufferPool} 
+ * at once when {@code endFrame()} is invoked. An arena is meant to be 
+ * used by a single thread, use {@code BufferPool.arena()} to get the 
+ * arena of the calling thread.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ * @see BufferPool
+ */
+public class FrameArena
+{
+	private final BufferPool pool;
+	private final ArrayList<AbstractBuffer<?>> owned = new ArrayList<AbstractBuffer<?>>();
+	
+	/**
+	 * Creates an arena that obtains its buffers from the given pool.
+	 * @param pool - the pool to obtain buffers from
+	 * @since 1.1.0
+	 */
+	public FrameArena(BufferPool pool)
+	{
+		this.pool = pool;
+	}
+	
+	/**
+	 * Releases all buffers obtained since the previous end of frame 
+	 * back to the pool. None of these buffers may be used after 
+	 * this method has been invoked.
+	 * @since 1.1.0
+	 */
+	public void endFrame()
+	{
+		for (int i=0, l=owned.size(); i<l; i++)
+		{
+			pool.recycle(owned.get(i));
+		}
+		owned.clear();
+	}
+	
+	// ==========================================
+	
+	/**
+	 * Returns a {@code IntBuffer} of the given dimensions that is released 
+	 * when the frame ends. Its content is undefined.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @return a buffer of the given dimensions
+	 * @since 1.1.0
+	 */
+	public IntBuffer obtainInt(int width, int height)
+	{
+		IntBuffer buffer = pool.obtainInt(width, height);
+		owned.add(buffer);
+		return buffer;
+	}
+	
+	/**
+	 * Returns a {@code FloatBuffer} of the given dimensions that is released 
+	 * when the frame ends. Its content is undefined.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @return a buffer of the given dimensions
+	 * @since 1.1.0
+	 */
+	public FloatBuffer obtainFloat(int width, int height)
+	{
+		FloatBuffer buffer = pool.obtainFloat(width, height);
+		owned.add(buffer);
+		return buffer;
+	}
+	
+	/**
+	 * Returns a {@code ByteBuffer} of the given dimensions that is released 
+	 * when the frame ends. Its content is undefined.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @return a buffer of the given dimensions
+	 * @since 1.1.0
+	 */
+	public ByteBuffer obtainByte(int width, int height)
+	{
+		ByteBuffer buffer = pool.obtainByte(width, height);
+		owned.add(buffer);
+		return buffer;
+	}
+	
+	/**
+	 * Returns a {@code ShortBuffer} of the given dimensions that is released 
+	 * when the frame ends. Its content is undefined.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @return a buffer of the given dimensions
+	 * @since 1.1.0
+	 */
+	public ShortBuffer obtainShort(int width, int height)
+	{
+		ShortBuffer buffer = pool.obtainShort(width, height);
+		owned.add(buffer);
+		return buffer;
+	}
+	
+	/**
+	 * Returns a {@code LongBuffer} of the given dimensions that is released 
+	 * when the frame ends. Its content is undefined.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @return a buffer of the given dimensions
+	 * @since 1.1.0
+	 */
+	public LongBuffer obtainLong(int width, int height)
+	{
+		LongBuffer buffer = pool.obtainLong(width, height);
+		owned.add(buffer);
+		return buffer;
+	}
+	
+	/**
+	 * Returns a {@code DoubleBuffer} of the given dimensions that is released 
+	 * when the frame ends. Its content is undefined.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @return a buffer of the given dimensions
+	 * @since 1.1.0
+	 */
+	public DoubleBuffer obtainDouble(int width, int height)
+	{
+		DoubleBuffer buffer = pool.obtainDouble(width, height);
+		owned.add(buffer);
+		return buffer;
+	}
+	
+	/**
+	 * Returns a {@code BooleanBuffer} of the given dimensions that is released 
+	 * when the frame ends. Its content is undefined.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @return a buffer of the given dimensions
+	 * @since 1.1.0
+	 */
+	public BooleanBuffer obtainBoolean(int width, int height)
+	{
+		BooleanBuffer buffer = pool.obtainBoolean(width, height);
+		owned.add(buffer);
+		return buffer;
+	}
+}
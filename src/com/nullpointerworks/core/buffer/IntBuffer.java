@@ -5,6 +5,8 @@
  */
 package com.nullpointerworks.core.buffer;
 
+import java.util.Arrays;
+
 /**
  * A buffer implementation that contains a {@code int} array.
  * @author Michiel Drost - Nullpointer Works
@@ -40,6 +42,37 @@ public class IntBuffer extends AbstractBuffer<IntBuffer>
 		clear(init);
 	}
 	
+	/**
+	 * Creates a buffer with the given dimensions and row 
+	 * layout. Each element of this buffer will be defaulted 
+	 * to 0.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @param layout - the way the rows are placed in the content array
+	 * @since 1.1.0
+	 */
+	public IntBuffer(int width, int height, RowLayout layout) 
+	{
+		createBuffer(width,height,layout);
+	}
+	
+	/**
+	 * Creates a buffer with the given dimensions that uses the 
+	 * given array as its content. The array is not copied, so 
+	 * changes to either are visible in both. It is up to the user 
+	 * to make sure the array holds at least width times height 
+	 * elements.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @param array - the array to use as content
+	 * @since 1.1.0
+	 */
+	public IntBuffer(int width, int height, int[] array) 
+	{
+		setBuffer(width,height);
+		values = array;
+	}
+	
 	/**
 	 * Creates a buffer with the given dimensions.
 	 * @param width - the width of the buffer
@@ -52,6 +85,19 @@ public class IntBuffer extends AbstractBuffer<IntBuffer>
 		values = new int[length];
 	}
 	
+	/**
+	 * Creates a buffer with the given dimensions and row layout.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @param layout - the way the rows are placed in the content array
+	 * @since 1.1.0
+	 */
+	protected void createBuffer(int width, int height, RowLayout layout)
+	{
+		setBuffer(width,height,layout.stride(width, Integer.BYTES));
+		values = new int[Math.multiplyExact(stride, height)];
+	}
+	
 	/**
      * Copies the content of the given array onto the buffer.
      * @param array - the array of values to be copied
@@ -59,9 +105,15 @@ public class IntBuffer extends AbstractBuffer<IntBuffer>
      */
     public void plot(int[] array)
     {
-    	for (int i=0, l=array.length; i<l; i++)
+    	int l = Math.min(array.length, length);
+    	if (isPacked())
     	{
-    		values[i] = array[i];
+    		System.arraycopy(array, 0, values, offset, l);
+    		return;
+    	}
+    	for (int s=0, d=offset; s<l; s+=width, d+=stride)
+    	{
+    		System.arraycopy(array, s, values, d, Math.min(width, l-s));
     	}
     }
 
@@ -91,7 +143,7 @@ public class IntBuffer extends AbstractBuffer<IntBuffer>
      */
 	public void plot(int x, int y, int value)
 	{
-		int i = x + y*width;
+		int i = offset + x + y*stride;
 		values[i] = value;
 	}
 
@@ -102,11 +154,21 @@ public class IntBuffer extends AbstractBuffer<IntBuffer>
 	 */
 	public void clear(int value) 
 	{
-		for (int l=length-1; l>=0; l--) values[l] = value;
+		if (isPacked())
+		{
+			Arrays.fill(values, offset, offset+length, value);
+			return;
+		}
+		for (int i=offset, e=i+height*stride; i<e; i+=stride)
+		{
+			Arrays.fill(values, i, i+width, value);
+		}
 	}
 
 	/**
-	 * Returns the array content of the buffer.
+	 * Returns the array content of the buffer. The array is 
+	 * shared with the views of the buffer, use {@code index(int, int)} 
+	 * to find a value in it.
 	 * @return the array content of the buffer
 	 * @since 1.0.0
 	 */
@@ -139,7 +201,7 @@ public class IntBuffer extends AbstractBuffer<IntBuffer>
 	 */
 	public int grab(int x, int y)
 	{
-		return values[x + y*width];
+		return values[offset + x + y*stride];
 	}
 	
 	/**
@@ -159,7 +221,140 @@ public class IntBuffer extends AbstractBuffer<IntBuffer>
 		float sc = 0.999f*w;
 		int x = (int)(sc*u*width);
 		int y = (int)(sc*v*height);
-		return values[x + y*width];
+		return values[offset + x + y*stride];
+	}
+	
+	/**
+	 * Set the value of all elements within the given rectangle. 
+	 * Each row is filled in a single bulk operation. This method 
+	 * has no boundary detection. It is up to the user to make sure 
+	 * the rectangle is within bounds.
+	 * @param x - the left side of the rectangle
+	 * @param y - the top side of the rectangle
+	 * @param w - the width of the rectangle
+	 * @param h - the height of the rectangle
+	 * @param value - the value to fill the rectangle with
+	 * @since 1.1.0
+	 */
+	public void fillRect(int x, int y, int w, int h, int value)
+	{
+		for (int i=offset+x+y*stride, e=i+h*stride; i<e; i+=stride)
+		{
+			Arrays.fill(values, i, i+w, value);
+		}
+	}
+	
+	/**
+	 * Copies a rectangle of values from the given buffer onto 
+	 * this buffer. Each row is copied in a single bulk operation. 
+	 * This method has no boundary detection. It is up to the user 
+	 * to make sure both rectangles are within bounds. The buffers 
+	 * are allowed to be views onto the same array.
+	 * @param src - the buffer to copy the values from
+	 * @param sx - the left side of the rectangle in the source buffer
+	 * @param sy - the top side of the rectangle in the source buffer
+	 * @param w - the width of the rectangle
+	 * @param h - the height of the rectangle
+	 * @param dx - the left side of the rectangle in this buffer
+	 * @param dy - the top side of the rectangle in this buffer
+	 * @since 1.1.0
+	 */
+	public void blit(IntBuffer src, int sx, int sy, int w, int h, int dx, int dy)
+	{
+		if (src == this)
+		{
+			copyRegion(sx, sy, w, h, dx, dy);
+			return;
+		}
+		int[] array = src.content();
+		int ss = src.stride;
+		int s = src.offset+sx+sy*ss;
+		int d = offset+dx+dy*stride;
+		if (array == values && d > s)
+		{
+			for (int r=h-1; r>=0; r--)
+			{
+				System.arraycopy(array, s+r*ss, values, d+r*stride, w);
+			}
+			return;
+		}
+		for (int e=d+h*stride; d<e; s+=ss, d+=stride)
+		{
+			System.arraycopy(array, s, values, d, w);
+		}
+	}
+	
+	/**
+	 * Copies a rectangle of values within this buffer to another 
+	 * location in this buffer. The rectangles are allowed to 
+	 * overlap. This method has no boundary detection. It is up 
+	 * to the user to make sure both rectangles are within bounds.
+	 * @param sx - the left side of the source rectangle
+	 * @param sy - the top side of the source rectangle
+	 * @param w - the width of the rectangle
+	 * @param h - the height of the rectangle
+	 * @param dx - the left side of the destination rectangle
+	 * @param dy - the top side of the destination rectangle
+	 * @since 1.1.0
+	 */
+	public void copyRegion(int sx, int sy, int w, int h, int dx, int dy)
+	{
+		if (dy > sy)
+		{
+			for (int r=h-1; r>=0; r--)
+			{
+				System.arraycopy(values, offset+sx+(sy+r)*stride, values, offset+dx+(dy+r)*stride, w);
+			}
+			return;
+		}
+		for (int r=0; r<h; r++)
+		{
+			System.arraycopy(values, offset+sx+(sy+r)*stride, values, offset+dx+(dy+r)*stride, w);
+		}
+	}
+	
+	/**
+	 * Hands each row of the given rectangle to the operator, which 
+	 * may read and write the values of the row in place. Subclasses 
+	 * keep their locks and bookkeeping around the operator, which 
+	 * writing into {@code content()} directly does not. This method 
+	 * has no boundary detection. It is up to the user to make sure 
+	 * the rectangle is within bounds.
+	 * @param x - the left side of the rectangle
+	 * @param y - the top side of the rectangle
+	 * @param w - the width of the rectangle
+	 * @param h - the height of the rectangle
+	 * @param op - the operation to run on each row
+	 * @since 1.1.0
+	 */
+	public void apply(int x, int y, int w, int h, IntRowOperator op)
+	{
+		if (w < 1) return;
+		for (int r=0; r<h; r++)
+		{
+			op.apply(values, index(x,y+r), r);
+		}
+	}
+	
+	/**
+	 * Returns a buffer of the given dimensions that shares the 
+	 * content array of this buffer, with its top left corner at 
+	 * the given coordinates. Values placed in either buffer are 
+	 * visible in both, nothing is copied. This method has no 
+	 * boundary detection. It is up to the user to make sure the 
+	 * rectangle is within bounds.
+	 * @param x - the left side of the view
+	 * @param y - the top side of the view
+	 * @param w - the width of the view
+	 * @param h - the height of the view
+	 * @return a view onto a rectangle of this buffer
+	 * @since 1.1.0
+	 */
+	public IntBuffer view(int x, int y, int w, int h)
+	{
+		IntBuffer buff = new IntBuffer(w, h, values);
+		buff.setView(this, x, y);
+		return buff;
 	}
 	
 	@Override
@@ -171,8 +366,18 @@ public class IntBuffer extends AbstractBuffer<IntBuffer>
 	@Override
 	public IntBuffer copy()
 	{
-		IntBuffer buff = new IntBuffer(width,height);
-		buff.plot(this.content());
+		if (isPacked())
+		{
+			return new IntBuffer(width, height, Arrays.copyOfRange(values, offset, offset+length));
+		}
+		if (!view)
+		{
+			IntBuffer buff = new IntBuffer(width, height, values.clone());
+			buff.stride = stride;
+			return buff;
+		}
+		IntBuffer buff = new IntBuffer(width, height);
+		buff.blit(this, 0, 0, width, height, 0, 0);
 		return buff;
 	}
 }
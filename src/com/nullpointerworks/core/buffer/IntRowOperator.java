@@ -0,0 +1,27 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+/**
+ * An operation on a run of values in the content array of an 
+ * {@code IntBuffer}, one row at a time. The buffer decides when the 
+ * operator runs, so its locking and bookkeeping are kept.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ * @see IntBuffer#apply(int, int, int, int, IntRowOperator)
+ */
+@FunctionalInterface
+public interface IntRowOperator
+{
+	/**
+	 * Reads and writes the values of a single row in place.
+	 * @param values - the content array of the buffer
+	 * @param index - the index of the first value of the row
+	 * @param row - the row within the rectangle, starting at 0
+	 * @since 1.1.0
+	 */
+	void apply(int[] values, int index, int row);
+}
@@ -0,0 +1,324 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+/**
+ * Bulk kernels over entire buffers. Every loop in this class is a plain
+ * counted loop over an array, without branches or calls in its body,
+ * which is the shape the JIT compiler turns into SIMD instructions on
+ * its own. Clearing is not repeated here, {@code clear(value)} on each
+ * buffer already uses the JVM's vectorised fill. Blending is left to the
+ * {@code Compositor}.
+ * <p>
+ * Both buffers of a two buffer kernel are expected to have the same
+ * dimensions. Packed buffers are processed as a single run, views and
+ * padded buffers one row at a time. Colors are integers in ARGB format
+ * at 8 bit depth.
+ * <p>
+ * A plain {@code IntBuffer} is written to in place. Any other buffer,
+ * like a thread safe, dirty tracking or epoch cleared buffer, is written
+ * to through {@code apply(...)}, so its locking and bookkeeping apply.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public final class Kernels
+{
+	private Kernels()
+	{}
+
+	/**
+	 * Blends the source buffer over the destination buffer, using the
+	 * alpha channel of each source color. A source alpha of 255 replaces
+	 * the destination color, an alpha of 0 leaves it as it is. This is
+	 * the {@code BlendMode.SRC_OVER} mode of the {@code Compositor}.
+	 * @param src - the ARGB colors to blend
+	 * @param dst - the ARGB colors to blend onto
+	 * @since 1.1.0
+	 */
+	public static void blend(IntBuffer src, IntBuffer dst)
+	{
+		Compositor.composite(src, dst, BlendMode.SRC_OVER);
+	}
+
+	/**
+	 * Multiplies each channel of every color in the buffer with the
+	 * matching channel of the given color, scaled to [0-1]. Multiplying
+	 * with white leaves the buffer as it is.
+	 * @param buffer - the ARGB colors to modulate
+	 * @param argb - the color to multiply with
+	 * @since 1.1.0
+	 */
+	public static void multiply(IntBuffer buffer, int argb)
+	{
+		final int ma = scale(argb>>>24);
+		final int mr = scale((argb>>>16) & 0xFF);
+		final int mg = scale((argb>>>8) & 0xFF);
+		final int mb = scale(argb & 0xFF);
+		final int w = buffer.width;
+		
+		if (buffer.getClass() != IntBuffer.class)
+		{
+			buffer.apply(0, 0, w, buffer.height, (v, i, r) -> multiply(v, i, w, ma, mr, mg, mb));
+			return;
+		}
+		int[] v = buffer.content();
+		if (buffer.isPacked())
+		{
+			multiply(v, buffer.offset, buffer.length, ma, mr, mg, mb);
+			return;
+		}
+		for (int y=0; y<buffer.height; y++)
+		{
+			multiply(v, buffer.index(0,y), buffer.width, ma, mr, mg, mb);
+		}
+	}
+
+	/*
+	 * a channel in [0-255] as a factor in [0-256]
+	 */
+	private static int scale(int c)
+	{
+		return c + (c>>>7);
+	}
+
+	/*
+	 * multiply a run of colors with channel factors in [0-256]
+	 */
+	private static void multiply(int[] v, int vi, int n, int ma, int mr, int mg, int mb)
+	{
+		for (int i=vi, e=vi+n; i<e; i++)
+		{
+			int c = v[i];
+			int a = (((c>>>24)       ) * ma) >>> 8;
+			int r = (((c>>>16) & 0xFF) * mr) >>> 8;
+			int g = (((c>>> 8) & 0xFF) * mg) >>> 8;
+			int b = (((c     ) & 0xFF) * mb) >>> 8;
+			v[i] = (a<<24) | (r<<16) | (g<<8) | b;
+		}
+	}
+
+	/**
+	 * Converts each value of the source buffer to an integer after
+	 * multiplying it with the given scale. Fractions are truncated.
+	 * @param src - the values to convert
+	 * @param dst - the buffer to store the integers in
+	 * @param scale - the factor to multiply each value with
+	 * @since 1.1.0
+	 */
+	public static void convert(FloatBuffer src, IntBuffer dst, float scale)
+	{
+		final float[] s = src.content();
+		final int w = dst.width;
+		if (dst.getClass() != IntBuffer.class)
+		{
+			dst.apply(0, 0, w, dst.height, (d, i, r) -> convert(s, src.index(0,r), d, i, w, scale));
+			return;
+		}
+		int[] d = dst.content();
+		if (src.isPacked() && dst.isPacked())
+		{
+			convert(s, src.offset, d, dst.offset, dst.length, scale);
+			return;
+		}
+		for (int y=0; y<dst.height; y++)
+		{
+			convert(s, src.index(0,y), d, dst.index(0,y), dst.width, scale);
+		}
+	}
+
+	/*
+	 * convert a run of floats to scaled integers
+	 */
+	private static void convert(float[] s, int si, int[] d, int di, int n, float scale)
+	{
+		for (int i=0; i<n; i++)
+		{
+			d[di+i] = (int)(s[si+i] * scale);
+		}
+	}
+
+	/**
+	 * Returns the smallest value in the buffer.
+	 * @param buffer - the buffer to search
+	 * @return the smallest value in the buffer
+	 * @since 1.1.0
+	 */
+	public static int min(IntBuffer buffer)
+	{
+		int[] v = buffer.content();
+		int m = Integer.MAX_VALUE;
+		if (buffer.isPacked())
+		{
+			m = min(v, buffer.offset, buffer.length, m);
+		}
+		else
+		{
+			for (int y=0; y<buffer.height; y++) m = min(v, buffer.index(0,y), buffer.width, m);
+		}
+		return m;
+	}
+
+	/**
+	 * Returns the largest value in the buffer.
+	 * @param buffer - the buffer to search
+	 * @return the largest value in the buffer
+	 * @since 1.1.0
+	 */
+	public static int max(IntBuffer buffer)
+	{
+		int[] v = buffer.content();
+		int m = Integer.MIN_VALUE;
+		if (buffer.isPacked())
+		{
+			m = max(v, buffer.offset, buffer.length, m);
+		}
+		else
+		{
+			for (int y=0; y<buffer.height; y++) m = max(v, buffer.index(0,y), buffer.width, m);
+		}
+		return m;
+	}
+
+	/**
+	 * Returns the smallest value in the buffer. NaN values are
+	 * propagated, as with {@code Math.min(float, float)}.
+	 * @param buffer - the buffer to search
+	 * @return the smallest value in the buffer
+	 * @since 1.1.0
+	 */
+	public static float min(FloatBuffer buffer)
+	{
+		float[] v = buffer.content();
+		float m = Float.POSITIVE_INFINITY;
+		if (buffer.isPacked())
+		{
+			m = min(v, buffer.offset, buffer.length, m);
+		}
+		else
+		{
+			for (int y=0; y<buffer.height; y++) m = min(v, buffer.index(0,y), buffer.width, m);
+		}
+		return m;
+	}
+
+	/**
+	 * Returns the largest value in the buffer. NaN values are
+	 * propagated, as with {@code Math.max(float, float)}.
+	 * @param buffer - the buffer to search
+	 * @return the largest value in the buffer
+	 * @since 1.1.0
+	 */
+	public static float max(FloatBuffer buffer)
+	{
+		float[] v = buffer.content();
+		float m = Float.NEGATIVE_INFINITY;
+		if (buffer.isPacked())
+		{
+			m = max(v, buffer.offset, buffer.length, m);
+		}
+		else
+		{
+			for (int y=0; y<buffer.height; y++) m = max(v, buffer.index(0,y), buffer.width, m);
+		}
+		return m;
+	}
+
+	/**
+	 * Returns the smallest value in the buffer. Bytes are signed.
+	 * @param buffer - the buffer to search
+	 * @return the smallest value in the buffer
+	 * @since 1.1.0
+	 */
+	public static byte min(ByteBuffer buffer)
+	{
+		byte[] v = buffer.content();
+		int m = Byte.MAX_VALUE;
+		if (buffer.isPacked())
+		{
+			m = min(v, buffer.offset, buffer.length, m);
+		}
+		else
+		{
+			for (int y=0; y<buffer.height; y++) m = min(v, buffer.index(0,y), buffer.width, m);
+		}
+		return (byte)m;
+	}
+
+	/**
+	 * Returns the largest value in the buffer. Bytes are signed.
+	 * @param buffer - the buffer to search
+	 * @return the largest value in the buffer
+	 * @since 1.1.0
+	 */
+	public static byte max(ByteBuffer buffer)
+	{
+		byte[] v = buffer.content();
+		int m = Byte.MIN_VALUE;
+		if (buffer.isPacked())
+		{
+			m = max(v, buffer.offset, buffer.length, m);
+		}
+		else
+		{
+			for (int y=0; y<buffer.height; y++) m = max(v, buffer.index(0,y), buffer.width, m);
+		}
+		return (byte)m;
+	}
+
+	/*
+	 * the smallest of a run of values and the given value
+	 */
+	private static int min(int[] v, int vi, int n, int m)
+	{
+		for (int i=vi, e=vi+n; i<e; i++) m = Math.min(m, v[i]);
+		return m;
+	}
+
+	/*
+	 * the largest of a run of values and the given value
+	 */
+	private static int max(int[] v, int vi, int n, int m)
+	{
+		for (int i=vi, e=vi+n; i<e; i++) m = Math.max(m, v[i]);
+		return m;
+	}
+
+	/*
+	 * the smallest of a run of values and the given value
+	 */
+	private static float min(float[] v, int vi, int n, float m)
+	{
+		for (int i=vi, e=vi+n; i<e; i++) m = Math.min(m, v[i]);
+		return m;
+	}
+
+	/*
+	 * the largest of a run of values and the given value
+	 */
+	private static float max(float[] v, int vi, int n, float m)
+	{
+		for (int i=vi, e=vi+n; i<e; i++) m = Math.max(m, v[i]);
+		return m;
+	}
+
+	/*
+	 * the smallest of a run of values and the given value
+	 */
+	private static int min(byte[] v, int vi, int n, int m)
+	{
+		for (int i=vi, e=vi+n; i<e; i++) m = Math.min(m, v[i]);
+		return m;
+	}
+
+	/*
+	 * the largest of a run of values and the given value
+	 */
+	private static int max(byte[] v, int vi, int n, int m)
+	{
+		for (int i=vi, e=vi+n; i<e; i++) m = Math.max(m, v[i]);
+		return m;
+	}
+}
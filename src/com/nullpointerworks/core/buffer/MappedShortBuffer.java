@@ -0,0 +1,149 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A buffer implementation that stores its {@code short} values in a 
+ * memory-mapped file. Opening the buffer is instant, the file is paged 
+ * in lazily by the operating system as it's accessed, and the values 
+ * never occupy the Java heap. Since elements are indexed with a 
+ * {@code long}, the buffer may hold more than 2^31 elements.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public class MappedShortBuffer extends AbstractMappedBuffer
+{
+	private static final int FILL_SIZE = 1<<12;
+	private AtomicReferenceArray<java.nio.ShortBuffer> views;
+	
+	/**
+	 * Opens a writable buffer of the given dimensions that is backed 
+	 * by the given file. The file is created or grown when it's too 
+	 * small to hold the buffer.
+	 * @param file - the file that backs the buffer
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @throws IOException when the file cannot be opened
+	 * @since 1.1.0
+	 */
+	public MappedShortBuffer(Path file, int width, int height) throws IOException
+	{
+		this(file, width, height, false);
+	}
+	
+	/**
+	 * Opens a buffer of the given dimensions that is backed by the 
+	 * given file.
+	 * @param file - the file that backs the buffer
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @param readOnly - true to map the file read-only
+	 * @throws IOException when the file cannot be opened, or a read-only 
+	 * file is too small to hold the buffer
+	 * @since 1.1.0
+	 */
+	public MappedShortBuffer(Path file, int width, int height, boolean readOnly) throws IOException
+	{
+		open(file, width, height, 1, readOnly);
+		views = new AtomicReferenceArray<java.nio.ShortBuffer>((int)((length + mask) >> shift));
+	}
+	
+    /**
+     * Places the given value onto the buffer at the 
+     * specified index. This method has no boundary detection. 
+     * It is up to the user to make sure the index is within 
+     * bounds.
+	 * @param index - the index in the buffer
+	 * @param value - the value to be placed
+	 * @since 1.1.0
+     */
+    public void plot(long index, short value)
+	{
+		view((int)(index>>shift)).put((int)(index & mask), value);
+	}
+	
+    /**
+     * Places the given value onto the buffer at the specified 
+     * coordinates. This method has no boundary detection. 
+     * It is up to the user to make sure the index is within 
+     * bounds.
+	 * @param x - the location along the width of the buffer
+	 * @param y - the location along the height of the buffer
+	 * @param value - the value to be placed
+	 * @since 1.1.0
+     */
+	public void plot(int x, int y, short value)
+	{
+		plot(x + (long)y*width, value);
+	}
+
+	/**
+	 * Set the value of the entire buffer to the given value. This 
+	 * touches every page of the file. Each segment is filled in bulk.
+	 * @param value - the value to clear the buffer with
+	 * @since 1.1.0
+	 */
+	public void clear(short value) 
+	{
+		short[] fill = new short[(int)Math.min(length, FILL_SIZE)];
+		Arrays.fill(fill, value);
+		for (int s=0, l=views.length(); s<l; s++)
+		{
+			java.nio.ShortBuffer v = view(s).duplicate();
+			while (v.hasRemaining()) v.put(fill, 0, Math.min(fill.length, v.remaining()));
+		}
+	}
+	
+	/**
+	 * Take a value from the buffer at the specified index. This 
+	 * method has no boundary detection. It is up to the user to 
+	 * make sure the index is within bounds.
+	 * @param index - an index in the buffer
+	 * @return the value from the buffer at the specified index
+	 * @since 1.1.0
+	 */
+	public short grab(long index)
+	{
+		return view((int)(index>>shift)).get((int)(index & mask));
+	}
+	
+	/**
+	 * Take a value from the buffer at the specified coordinates.
+	 * This method has no boundary detection. It is up to the user 
+	 * to make sure the index is within bounds.
+	 * @param x - the location along the width of the buffer
+	 * @param y - the location along the height of the buffer
+	 * @return the value from the buffer at the specified coordinates
+	 * @since 1.1.0
+	 */
+	public short grab(int x, int y)
+	{
+		return grab(x + (long)y*width);
+	}
+	
+	@Override
+	public void free()
+	{
+		views = null;
+		super.free();
+	}
+	
+	/*
+	 * returns the typed view on a segment, mapping it when needed
+	 */
+	private java.nio.ShortBuffer view(int s)
+	{
+		java.nio.ShortBuffer v = views.get(s);
+		if (v != null) return v;
+		views.compareAndSet(s, null, segment(s).asShortBuffer());
+		return views.get(s);
+	}
+}
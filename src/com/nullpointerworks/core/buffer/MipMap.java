@@ -0,0 +1,207 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+import java.util.stream.IntStream;
+
+/**
+ * A chain of progressively smaller versions of an ARGB texture. Each level
+ * is half the width and height of the level above it, down to a single
+ * pixel, and is box filtered from the level above. Sampling picks the
+ * level that best matches the screen-space footprint of a pixel, so
+ * distant surfaces read from small, cache friendly levels and don't alias.
+ * <p>
+ * Level 0 is the buffer the mipmap was created with. Call {@code rebuild()}
+ * after changing its content. Levels larger than 64K pixels are filtered
+ * in parallel.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public class MipMap
+{
+	private static final int PARALLEL_THRESHOLD = 1<<16;
+	private static final float INV_LN2 = (float)(1.0 / Math.log(2.0));
+	private IntBuffer[] levels;
+
+	/**
+	 * Creates a complete mipmap chain on top of the given ARGB buffer.
+	 * The buffer is used as level 0, it's not copied.
+	 * @param texture - the full resolution texture
+	 * @since 1.1.0
+	 */
+	public MipMap(IntBuffer texture)
+	{
+		int w = texture.getWidth();
+		int h = texture.getHeight();
+		int count = 1;
+		while (w > 1 || h > 1)
+		{
+			w = (w>1)? w>>1: 1;
+			h = (h>1)? h>>1: 1;
+			count++;
+		}
+
+		levels = new IntBuffer[count];
+		levels[0] = texture;
+		for (int l=1; l<count; l++)
+		{
+			IntBuffer above = levels[l-1];
+			int lw = above.getWidth();
+			int lh = above.getHeight();
+			levels[l] = new IntBuffer((lw>1)? lw>>1: 1, (lh>1)? lh>>1: 1);
+		}
+		rebuild();
+	}
+
+	/**
+	 * Filters every level again from level 0. Use this after the
+	 * content of the base texture has changed.
+	 * @since 1.1.0
+	 */
+	public void rebuild()
+	{
+		for (int l=1; l<levels.length; l++)
+		{
+			final IntBuffer src = levels[l-1];
+			final IntBuffer dst = levels[l];
+			if (dst.getLength() < PARALLEL_THRESHOLD)
+			{
+				for (int y=0, e=dst.getHeight(); y<e; y++) downsample(src, dst, y);
+				continue;
+			}
+			IntStream.range(0, dst.getHeight()).parallel().forEach(y -> downsample(src, dst, y));
+		}
+	}
+
+	/**
+	 * Returns the amount of levels in the chain, including level 0.
+	 * @return the amount of levels in the chain
+	 * @since 1.1.0
+	 */
+	public int getLevels()
+	{
+		return levels.length;
+	}
+
+	/**
+	 * Returns the buffer of the given level. Level 0 is the full
+	 * resolution texture.
+	 * @param level - the level to return
+	 * @return the buffer of the given level
+	 * @since 1.1.0
+	 */
+	public IntBuffer getLevel(int level)
+	{
+		return levels[level];
+	}
+
+	/**
+	 * Returns the level of detail for a pixel, given the derivatives
+	 * of the UV coordinates along the screen's x and y axis. A level of
+	 * 0 means one texel per pixel, every level above that halves the
+	 * resolution.
+	 * @param dudx - the change of u for a step along the screen's x axis
+	 * @param dvdx - the change of v for a step along the screen's x axis
+	 * @param dudy - the change of u for a step along the screen's y axis
+	 * @param dvdy - the change of v for a step along the screen's y axis
+	 * @return the level of detail for the pixel
+	 * @since 1.1.0
+	 */
+	public float lod(float dudx, float dvdx, float dudy, float dvdy)
+	{
+		float w = levels[0].getWidth();
+		float h = levels[0].getHeight();
+		float xu = dudx*w, xv = dvdx*h;
+		float yu = dudy*w, yv = dvdy*h;
+		float dx = xu*xu + xv*xv;
+		float dy = yu*yu + yv*yv;
+		float d = (dx > dy)? dx: dy;
+		if (d <= 1f) return 0f;
+		return 0.5f * (float)Math.log(d) * INV_LN2;
+	}
+
+	/**
+	 * Take a value from the level closest to the given level of detail,
+	 * at the specified UV mapping coordinates. This method has no boundary
+	 * detection for the UV coordinates. It is up to the user to make sure
+	 * they are within bounds.
+	 * @param u - a factor [0-1] along the width of the texture
+	 * @param v - a factor [0-1] along the height of the texture
+	 * @param lod - the level of detail, see {@code lod(float, float, float, float)}
+	 * @return the value from the level at the found coordinates
+	 * @since 1.1.0
+	 */
+	public int grab(float u, float v, float lod)
+	{
+		int l = (int)(lod + 0.5f);
+		if (l < 0) l = 0;
+		if (l >= levels.length) l = levels.length-1;
+		return levels[l].grab(u, v, 1f);
+	}
+
+	/**
+	 * Take a value at the specified UV mapping coordinates from the
+	 * level that matches the given screen-space derivatives. This method
+	 * has no boundary detection for the UV coordinates. It is up to the
+	 * user to make sure they are within bounds.
+	 * @param u - a factor [0-1] along the width of the texture
+	 * @param v - a factor [0-1] along the height of the texture
+	 * @param dudx - the change of u for a step along the screen's x axis
+	 * @param dvdx - the change of v for a step along the screen's x axis
+	 * @param dudy - the change of u for a step along the screen's y axis
+	 * @param dvdy - the change of v for a step along the screen's y axis
+	 * @return the value from the matching level at the found coordinates
+	 * @since 1.1.0
+	 */
+	public int grab(float u, float v, float dudx, float dvdx, float dudy, float dvdy)
+	{
+		return grab(u, v, lod(dudx, dvdx, dudy, dvdy));
+	}
+
+	/**
+	 * Frees all levels, including the base texture.
+	 * @since 1.1.0
+	 */
+	public void free()
+	{
+		for (IntBuffer level : levels) level.free();
+		levels = null;
+	}
+
+	/*
+	 * box filter a row of the destination level from 2x2 source pixels.
+	 * the red and blue, and the alpha and green channels are summed in
+	 * pairs, each channel having 16 bits of room
+	 */
+	private static void downsample(IntBuffer src, IntBuffer dst, int y)
+	{
+		int[] s = src.content();
+		int[] d = dst.content();
+		int sw = src.getWidth();
+		int sh = src.getHeight();
+		int dw = dst.getWidth();
+		int y0 = (y<<1);
+		int y1 = (y0+1 < sh)? y0+1: y0;
+		int r0 = src.index(0,y0);
+		int r1 = src.index(0,y1);
+
+		for (int x=0, i=dst.index(0,y); x<dw; x++, i++)
+		{
+			int x0 = (x<<1);
+			int x1 = (x0+1 < sw)? x0+1: x0;
+			int p0 = s[r0+x0];
+			int p1 = s[r0+x1];
+			int p2 = s[r1+x0];
+			int p3 = s[r1+x1];
+
+			int rb = (p0 & 0x00FF00FF) + (p1 & 0x00FF00FF) + (p2 & 0x00FF00FF) + (p3 & 0x00FF00FF);
+			int ag = ((p0>>>8) & 0x00FF00FF) + ((p1>>>8) & 0x00FF00FF) + ((p2>>>8) & 0x00FF00FF) + ((p3>>>8) & 0x00FF00FF);
+			rb = ((rb + 0x00020002) >>> 2) & 0x00FF00FF;
+			ag = ((ag + 0x00020002) >>> 2) & 0x00FF00FF;
+			d[i] = (ag << 8) | rb;
+		}
+	}
+}
@@ -0,0 +1,257 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+import java.util.Arrays;
+
+/**
+ * A buffer implementation that contains a {@code int} array in a tiled
+ * Z-order layout. The buffer is divided into tiles of 8 by 8 elements
+ * that are stored one after another, and the elements within a tile are
+ * stored in Morton order. Elements that are close together in 2D are
+ * therefore close together in memory, no matter the direction in which
+ * they are read. This keeps texture sampling along columns, or along
+ * rotated and perspective-correct spans, cache resident.
+ * <p>
+ * The content array is padded to whole tiles, and it's not in row-major
+ * order. Use {@code plot(IntBuffer)} and {@code grab(IntBuffer)} to convert
+ * from and to a row-major {@code IntBuffer}.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public class MortonIntBuffer extends AbstractBuffer<MortonIntBuffer>
+{
+	private static final int TILE_SHIFT = 3;
+	private static final int TILE_SIZE = 1<<TILE_SHIFT;
+	private static final int TILE_MASK = TILE_SIZE-1;
+	private static final int[] MORTON = createMorton();
+
+	protected int[] values;
+	protected int tilesX;
+
+	/**
+	 * Creates a buffer with the given dimensions. Each
+	 * element of this buffer will be defaulted to 0.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @since 1.1.0
+	 */
+	public MortonIntBuffer(int width, int height)
+	{
+		createBuffer(width,height);
+	}
+
+	/**
+	 * Creates a buffer with the given dimensions and
+	 * initial value.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @param init - the initial value
+	 * @since 1.1.0
+	 */
+	public MortonIntBuffer(int width, int height, int init)
+	{
+		createBuffer(width,height);
+		clear(init);
+	}
+
+	/**
+	 * Creates a buffer with the dimensions and content of
+	 * the given row-major buffer.
+	 * @param buffer - the row-major buffer to convert
+	 * @since 1.1.0
+	 */
+	public MortonIntBuffer(IntBuffer buffer)
+	{
+		createBuffer(buffer.getWidth(),buffer.getHeight());
+		plot(buffer);
+	}
+
+	/**
+	 * Creates a buffer with the given dimensions.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @since 1.1.0
+	 */
+	protected void createBuffer(int width, int height)
+	{
+		setBuffer(width,height);
+		tilesX = (width + TILE_MASK) >> TILE_SHIFT;
+		int tilesY = (height + TILE_MASK) >> TILE_SHIFT;
+		values = new int[Math.multiplyExact(tilesX*tilesY, TILE_SIZE*TILE_SIZE)];
+	}
+
+	/**
+	 * Returns the index in the content array of the value at
+	 * the given coordinates.
+	 * @param x - the location along the width of the buffer
+	 * @param y - the location along the height of the buffer
+	 * @return the index in the content array
+	 * @since 1.1.0
+	 */
+	@Override
+	public int index(int x, int y)
+	{
+		int tile = (x>>TILE_SHIFT) + (y>>TILE_SHIFT)*tilesX;
+		return (tile << (TILE_SHIFT+TILE_SHIFT)) | MORTON[((y & TILE_MASK)<<TILE_SHIFT) | (x & TILE_MASK)];
+	}
+
+	/**
+	 * Copies the content of the given row-major buffer onto this
+	 * buffer. Both buffers are expected to have the same dimensions.
+	 * @param buffer - the row-major buffer to convert
+	 * @since 1.1.0
+	 */
+	public void plot(IntBuffer buffer)
+	{
+		int[] src = buffer.content();
+		for (int y=0; y<height; y++)
+		{
+			for (int x=0, i=buffer.index(0,y); x<width; x++, i++)
+			{
+				values[index(x,y)] = src[i];
+			}
+		}
+	}
+
+    /**
+     * Places the given value onto the buffer at the specified
+     * coordinates. This method has no boundary detection.
+     * It is up to the user to make sure the index is within
+     * bounds.
+	 * @param x - the location along the width of the buffer
+	 * @param y - the location along the height of the buffer
+	 * @param value - the value to be placed
+	 * @since 1.1.0
+     */
+	public void plot(int x, int y, int value)
+	{
+		values[index(x,y)] = value;
+	}
+
+	/**
+	 * Set the value of the entire buffer to the given value.
+	 * @param value - the value to clear the buffer with
+	 * @since 1.1.0
+	 */
+	public void clear(int value)
+	{
+		Arrays.fill(values, value);
+	}
+
+	/**
+	 * Returns the array content of the buffer. The values are
+	 * stored in tiled Z-order, see {@code index(int, int)}.
+	 * @return the array content of the buffer
+	 * @since 1.1.0
+	 */
+	public int[] content()
+	{
+		return values;
+	}
+
+	/**
+	 * Copies the content of this buffer onto the given row-major
+	 * buffer. Both buffers are expected to have the same dimensions.
+	 * @param buffer - the row-major buffer to receive the values
+	 * @since 1.1.0
+	 */
+	public void grab(IntBuffer buffer)
+	{
+		int[] dst = buffer.content();
+		for (int y=0; y<height; y++)
+		{
+			for (int x=0, i=buffer.index(0,y); x<width; x++, i++)
+			{
+				dst[i] = values[index(x,y)];
+			}
+		}
+	}
+
+	/**
+	 * Returns a row-major copy of this buffer.
+	 * @return a row-major copy of this buffer
+	 * @since 1.1.0
+	 */
+	public IntBuffer toIntBuffer()
+	{
+		IntBuffer buffer = new IntBuffer(width,height);
+		grab(buffer);
+		return buffer;
+	}
+
+	/**
+	 * Take a value from the buffer at the specified coordinates.
+	 * This method has no boundary detection. It is up to the user
+	 * to make sure the index is within bounds.
+	 * @param x - the location along the width of the buffer
+	 * @param y - the location along the height of the buffer
+	 * @return the value from the buffer at the specified coordinates
+	 * @since 1.1.0
+	 */
+	public int grab(int x, int y)
+	{
+		return values[index(x,y)];
+	}
+
+	/**
+	 * Take a value from the buffer at the specified UV mapping
+	 * coordinates. The parameter W is a depth scaling value
+	 * that can be kept at 1 if no depth correction is performed.
+	 * This method has no boundary detection. It is up to the user
+	 * to make sure the index is within bounds.
+	 * @param u - a factor [0-1] along the width of the buffer
+	 * @param v - a factor [0-1] along the height of the buffer
+	 * @param w - the depth scaling parameter
+	 * @return the value from the buffer at the found coordinates
+	 * @since 1.1.0
+	 */
+	public int grab(float u, float v, float w)
+	{
+		float sc = 0.999f*w;
+		int x = (int)(sc*u*width);
+		int y = (int)(sc*v*height);
+		return values[index(x,y)];
+	}
+
+	@Override
+	public void free()
+	{
+		values = null;
+	}
+
+	@Override
+	public MortonIntBuffer copy()
+	{
+		MortonIntBuffer buff = new MortonIntBuffer(0,0);
+		buff.setBuffer(width,height);
+		buff.tilesX = tilesX;
+		buff.values = values.clone();
+		return buff;
+	}
+
+	/*
+	 * Morton order of the elements within a tile, indexed by y*8+x
+	 */
+	private static int[] createMorton()
+	{
+		int[] morton = new int[TILE_SIZE*TILE_SIZE];
+		for (int y=0; y<TILE_SIZE; y++)
+		{
+			for (int x=0; x<TILE_SIZE; x++)
+			{
+				int m = 0;
+				for (int b=0; b<TILE_SHIFT; b++)
+				{
+					m |= ((x>>b) & 1) << (2*b);
+					m |= ((y>>b) & 1) << (2*b+1);
+				}
+				morton[(y<<TILE_SHIFT) | x] = m;
+			}
+		}
+		return morton;
+	}
+}
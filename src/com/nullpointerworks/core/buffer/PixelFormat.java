@@ -0,0 +1,369 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+/**
+ * Converts colors between the pixel formats the buffers can hold. Colors
+ * in an {@code IntBuffer} are ARGB at 8 bit depth. A {@code ShortBuffer}
+ * holds RGB565 colors. A {@code ByteBuffer} holds either RGBA colors as
+ * four bytes per pixel, making it four times as wide as the image, or
+ * grayscale values as one byte per pixel.
+ * <p>
+ * The source and destination buffers are expected to have the same
+ * dimensions in pixels. The conversion is skipped if they don't. Packed
+ * buffers are converted as a single run, views and padded buffers one
+ * row at a time.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public final class PixelFormat
+{
+	private static final int[] UNPREMULTIPLY = createUnpremultiply();
+
+	private PixelFormat()
+	{}
+
+	/**
+	 * Converts ARGB colors to RGB565 colors. The alpha channel is dropped,
+	 * the color channels are truncated.
+	 * @param src - the ARGB colors to convert
+	 * @param dst - the buffer to store the RGB565 colors in
+	 * @since 1.1.0
+	 */
+	public static void toRGB565(IntBuffer src, ShortBuffer dst)
+	{
+		if (!fits(src, dst, 1)) return;
+		int[] s = src.content();
+		short[] d = dst.content();
+		if (src.isPacked() && dst.isPacked())
+		{
+			toRGB565(s, src.offset, d, dst.offset, src.length);
+			return;
+		}
+		for (int y=0; y<src.height; y++)
+		{
+			toRGB565(s, src.index(0,y), d, dst.index(0,y), src.width);
+		}
+	}
+
+	/**
+	 * Converts a run of ARGB colors to RGB565 colors. The alpha channel
+	 * is dropped, the color channels are truncated.
+	 * @param src - the ARGB colors to convert
+	 * @param srcPos - the index of the first ARGB color
+	 * @param dst - the array to store the RGB565 colors in
+	 * @param dstPos - the index of the first RGB565 color
+	 * @param length - the amount of colors to convert
+	 * @since 1.1.0
+	 */
+	public static void toRGB565(int[] src, int srcPos, short[] dst, int dstPos, int length)
+	{
+		for (int e=srcPos+length; srcPos<e; srcPos++, dstPos++)
+		{
+			int c = src[srcPos];
+			dst[dstPos] = (short)( ((c>>>8) & 0xF800) | ((c>>>5) & 0x07E0) | ((c>>>3) & 0x001F) );
+		}
+	}
+
+	/**
+	 * Converts RGB565 colors to opaque ARGB colors. The high bits of each
+	 * channel are repeated in its low bits, so white stays white.
+	 * @param src - the RGB565 colors to convert
+	 * @param dst - the buffer to store the ARGB colors in
+	 * @since 1.1.0
+	 */
+	public static void fromRGB565(ShortBuffer src, IntBuffer dst)
+	{
+		if (!fits(src, dst, 1)) return;
+		short[] s = src.content();
+		int[] d = dst.content();
+		if (src.isPacked() && dst.isPacked())
+		{
+			fromRGB565(s, src.offset, d, dst.offset, src.length);
+			return;
+		}
+		for (int y=0; y<src.height; y++)
+		{
+			fromRGB565(s, src.index(0,y), d, dst.index(0,y), src.width);
+		}
+	}
+
+	/**
+	 * Converts a run of RGB565 colors to opaque ARGB colors. The high bits
+	 * of each channel are repeated in its low bits, so white stays white.
+	 * @param src - the RGB565 colors to convert
+	 * @param srcPos - the index of the first RGB565 color
+	 * @param dst - the array to store the ARGB colors in
+	 * @param dstPos - the index of the first ARGB color
+	 * @param length - the amount of colors to convert
+	 * @since 1.1.0
+	 */
+	public static void fromRGB565(short[] src, int srcPos, int[] dst, int dstPos, int length)
+	{
+		for (int e=srcPos+length; srcPos<e; srcPos++, dstPos++)
+		{
+			int c = src[srcPos];
+			int r = (c>>>11) & 0x1F;
+			int g = (c>>> 5) & 0x3F;
+			int b = (c     ) & 0x1F;
+			r = (r<<3) | (r>>>2);
+			g = (g<<2) | (g>>>4);
+			b = (b<<3) | (b>>>2);
+			dst[dstPos] = 0xFF000000 | (r<<16) | (g<<8) | b;
+		}
+	}
+
+	/**
+	 * Converts ARGB colors to RGBA bytes. Each color is stored as four
+	 * bytes in the order red, green, blue and alpha.
+	 * @param src - the ARGB colors to convert
+	 * @param dst - the buffer to store the RGBA bytes in
+	 * @since 1.1.0
+	 */
+	public static void toRGBA(IntBuffer src, ByteBuffer dst)
+	{
+		if (!fits(src, dst, 4)) return;
+		int[] s = src.content();
+		byte[] d = dst.content();
+		if (src.isPacked() && dst.isPacked())
+		{
+			toRGBA(s, src.offset, d, dst.offset, src.length);
+			return;
+		}
+		for (int y=0; y<src.height; y++)
+		{
+			toRGBA(s, src.index(0,y), d, dst.index(0,y), src.width);
+		}
+	}
+
+	/**
+	 * Converts RGBA bytes to ARGB colors. Each color is read as four
+	 * bytes in the order red, green, blue and alpha.
+	 * @param src - the RGBA bytes to convert
+	 * @param dst - the buffer to store the ARGB colors in
+	 * @since 1.1.0
+	 */
+	public static void fromRGBA(ByteBuffer src, IntBuffer dst)
+	{
+		if (!fits(dst, src, 4)) return;
+		byte[] s = src.content();
+		int[] d = dst.content();
+		if (src.isPacked() && dst.isPacked())
+		{
+			fromRGBA(s, src.offset, d, dst.offset, dst.length);
+			return;
+		}
+		for (int y=0; y<dst.height; y++)
+		{
+			fromRGBA(s, src.index(0,y), d, dst.index(0,y), dst.width);
+		}
+	}
+
+	/**
+	 * Converts ARGB colors to grayscale bytes. The luminance is weighted
+	 * by the Rec. 601 factors, the alpha channel is dropped.
+	 * @param src - the ARGB colors to convert
+	 * @param dst - the buffer to store the grayscale bytes in
+	 * @since 1.1.0
+	 */
+	public static void toGray(IntBuffer src, ByteBuffer dst)
+	{
+		if (!fits(src, dst, 1)) return;
+		int[] s = src.content();
+		byte[] d = dst.content();
+		if (src.isPacked() && dst.isPacked())
+		{
+			toGray(s, src.offset, d, dst.offset, src.length);
+			return;
+		}
+		for (int y=0; y<src.height; y++)
+		{
+			toGray(s, src.index(0,y), d, dst.index(0,y), src.width);
+		}
+	}
+
+	/**
+	 * Converts grayscale bytes to opaque ARGB colors.
+	 * @param src - the grayscale bytes to convert
+	 * @param dst - the buffer to store the ARGB colors in
+	 * @since 1.1.0
+	 */
+	public static void fromGray(ByteBuffer src, IntBuffer dst)
+	{
+		if (!fits(src, dst, 1)) return;
+		byte[] s = src.content();
+		int[] d = dst.content();
+		if (src.isPacked() && dst.isPacked())
+		{
+			fromGray(s, src.offset, d, dst.offset, src.length);
+			return;
+		}
+		for (int y=0; y<src.height; y++)
+		{
+			fromGray(s, src.index(0,y), d, dst.index(0,y), src.width);
+		}
+	}
+
+	/**
+	 * Multiplies the color channels of each ARGB color by its alpha. The
+	 * buffers are allowed to be the same buffer.
+	 * @param src - the straight ARGB colors to convert
+	 * @param dst - the buffer to store the premultiplied colors in
+	 * @since 1.1.0
+	 */
+	public static void premultiply(IntBuffer src, IntBuffer dst)
+	{
+		if (!fits(src, dst, 1)) return;
+		int[] s = src.content();
+		int[] d = dst.content();
+		if (src.isPacked() && dst.isPacked())
+		{
+			premultiply(s, src.offset, d, dst.offset, src.length);
+			return;
+		}
+		for (int y=0; y<src.height; y++)
+		{
+			premultiply(s, src.index(0,y), d, dst.index(0,y), src.width);
+		}
+	}
+
+	/**
+	 * Divides the color channels of each premultiplied ARGB color by its
+	 * alpha. Colors with an alpha of 0 become 0. The buffers are allowed
+	 * to be the same buffer.
+	 * @param src - the premultiplied ARGB colors to convert
+	 * @param dst - the buffer to store the straight colors in
+	 * @since 1.1.0
+	 */
+	public static void unpremultiply(IntBuffer src, IntBuffer dst)
+	{
+		if (!fits(src, dst, 1)) return;
+		int[] s = src.content();
+		int[] d = dst.content();
+		if (src.isPacked() && dst.isPacked())
+		{
+			unpremultiply(s, src.offset, d, dst.offset, src.length);
+			return;
+		}
+		for (int y=0; y<src.height; y++)
+		{
+			unpremultiply(s, src.index(0,y), d, dst.index(0,y), src.width);
+		}
+	}
+
+	// ==========================================
+
+	/*
+	 * true if the destination holds the same amount of rows, and the
+	 * given amount of elements per pixel of the source
+	 */
+	private static boolean fits(AbstractBuffer<?> src, AbstractBuffer<?> dst, int elements)
+	{
+		return src.width*elements == dst.width && src.height == dst.height;
+	}
+
+	/*
+	 * ARGB to RGBA for a run of pixels
+	 */
+	private static void toRGBA(int[] s, int si, byte[] d, int di, int n)
+	{
+		for (int e=si+n; si<e; si++, di+=4)
+		{
+			int c = s[si];
+			d[di  ] = (byte)(c>>>16);
+			d[di+1] = (byte)(c>>> 8);
+			d[di+2] = (byte)(c     );
+			d[di+3] = (byte)(c>>>24);
+		}
+	}
+
+	/*
+	 * RGBA to ARGB for a run of pixels
+	 */
+	private static void fromRGBA(byte[] s, int si, int[] d, int di, int n)
+	{
+		for (int e=di+n; di<e; di++, si+=4)
+		{
+			d[di] = ((s[si+3] & 0xFF)<<24) |
+					((s[si  ] & 0xFF)<<16) |
+					((s[si+1] & 0xFF)<< 8) |
+					((s[si+2] & 0xFF)    );
+		}
+	}
+
+	/*
+	 * ARGB to grayscale for a run of pixels
+	 */
+	private static void toGray(int[] s, int si, byte[] d, int di, int n)
+	{
+		for (int e=si+n; si<e; si++, di++)
+		{
+			int c = s[si];
+			int y = 77 * ((c>>>16) & 0xFF) + 150 * ((c>>>8) & 0xFF) + 29 * (c & 0xFF);
+			d[di] = (byte)((y + 128) >>> 8);
+		}
+	}
+
+	/*
+	 * grayscale to ARGB for a run of pixels
+	 */
+	private static void fromGray(byte[] s, int si, int[] d, int di, int n)
+	{
+		for (int e=si+n; si<e; si++, di++)
+		{
+			d[di] = 0xFF000000 | ((s[si] & 0xFF) * 0x010101);
+		}
+	}
+
+	/*
+	 * premultiply a run of pixels. the red and blue channels are scaled
+	 * as a pair
+	 */
+	private static void premultiply(int[] s, int si, int[] d, int di, int n)
+	{
+		for (int e=si+n; si<e; si++, di++)
+		{
+			int c = s[si];
+			int a = c>>>24;
+			a += a>>>7;
+			int rb = (((c & 0x00FF00FF) * a + 0x00800080) >>> 8) & 0x00FF00FF;
+			int g  = (((c & 0x0000FF00) * a + 0x00008000) >>> 8) & 0x0000FF00;
+			d[di] = (c & 0xFF000000) | rb | g;
+		}
+	}
+
+	/*
+	 * unpremultiply a run of pixels with the reciprocal table
+	 */
+	private static void unpremultiply(int[] s, int si, int[] d, int di, int n)
+	{
+		for (int e=si+n; si<e; si++, di++)
+		{
+			int c = s[si];
+			int f = UNPREMULTIPLY[c>>>24];
+			int r = (((c>>>16) & 0xFF) * f + 0x8000) >>> 16;
+			int g = (((c>>> 8) & 0xFF) * f + 0x8000) >>> 16;
+			int b = (((c     ) & 0xFF) * f + 0x8000) >>> 16;
+			r = (r > 0xFF)? 0xFF: r;
+			g = (g > 0xFF)? 0xFF: g;
+			b = (b > 0xFF)? 0xFF: b;
+			d[di] = (c & 0xFF000000) | (r<<16) | (g<<8) | b;
+		}
+	}
+
+	/*
+	 * 16.16 fixed-point reciprocals of the alpha values, scaled to 255
+	 */
+	private static int[] createUnpremultiply()
+	{
+		int[] table = new int[256];
+		for (int a=1; a<256; a++)
+		{
+			table[a] = (255 * 65536 + (a>>1)) / a;
+		}
+		return table;
+	}
+}
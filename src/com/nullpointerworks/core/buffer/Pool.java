@@ -0,0 +1,149 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+/**
+ * Keeps released buffers of a single type, keyed by their dimensions. 
+ * Applications only use a handful of buffer sizes, so the sizes are 
+ * kept in a list that's searched linearly. Neither obtaining nor 
+ * releasing a buffer allocates once the pool has warmed up.
+ * <p>
+ * Buffers handed out are marked with the pool they came from until 
+ * they're released, so a buffer can only be released once, and only to 
+ * that pool. The pool keeps no reference to the buffers it hands out, 
+ * a buffer that is never released is simply forgotten. The amount of 
+ * buffers kept by the pool is capped.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+class Pool<B extends AbstractBuffer<B>>
+{
+	/**
+	 * Creates new buffers when the pool has none of the requested size.
+	 * @since 1.1.0
+	 */
+	interface Factory<B>
+	{
+		B create(int width, int height);
+	}
+	
+	private final Class<?> type;
+	private final Factory<B> factory;
+	private final ArrayList<Slot<B>> slots = new ArrayList<Slot<B>>();
+	private final int capacity;
+	private Object owner = new Object();
+	private int pooled = 0;
+	
+	/**
+	 * Creates a pool for buffers of exactly the given type.
+	 * @param type - the class of the pooled buffers
+	 * @param factory - creates buffers of the given type
+	 * @param capacity - the maximum amount of buffers kept
+	 * @since 1.1.0
+	 */
+	Pool(Class<B> type, Factory<B> factory, int capacity)
+	{
+		this.type = type;
+		this.factory = factory;
+		this.capacity = capacity;
+	}
+	
+	/**
+	 * Returns a pooled buffer of the given dimensions, or a new one 
+	 * if there is none. The content of a pooled buffer is undefined.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @return a buffer of the given dimensions
+	 * @since 1.1.0
+	 */
+	synchronized B obtain(int width, int height)
+	{
+		Slot<B> slot = find(width, height);
+		B buffer;
+		if (slot == null || slot.free.isEmpty())
+		{
+			buffer = factory.create(width, height);
+		}
+		else
+		{
+			buffer = slot.free.pop();
+			pooled--;
+		}
+		buffer.owner = owner;
+		return buffer;
+	}
+	
+	/**
+	 * Returns the given buffer to the pool. Buffers that were not 
+	 * obtained from this pool, or were released already, are ignored. 
+	 * So are buffers of a subclass of the pooled type, and buffers 
+	 * released while the pool is full.
+	 * @param buffer - the buffer to return
+	 * @param reusable - false if the buffer has been freed
+	 * @since 1.1.0
+	 */
+	synchronized void release(B buffer, boolean reusable)
+	{
+		if (buffer.owner != owner) return;
+		buffer.owner = null;
+		if (!reusable || pooled >= capacity) return;
+		if (buffer.getClass() != type || buffer.isView() || !buffer.isPacked()) return;
+		int w = buffer.getWidth();
+		int h = buffer.getHeight();
+		Slot<B> slot = find(w, h);
+		if (slot == null)
+		{
+			slot = new Slot<B>(w, h);
+			slots.add(slot);
+		}
+		slot.free.push(buffer);
+		pooled++;
+	}
+	
+	/**
+	 * Drops all pooled buffers, and forgets the buffers that are 
+	 * still in use. Those are not taken back when released.
+	 * @since 1.1.0
+	 */
+	synchronized void clear()
+	{
+		slots.clear();
+		owner = new Object();
+		pooled = 0;
+	}
+	
+	/*
+	 * find the slot for the given dimensions
+	 */
+	private Slot<B> find(int width, int height)
+	{
+		for (int i=0, l=slots.size(); i<l; i++)
+		{
+			Slot<B> slot = slots.get(i);
+			if (slot.width == width && slot.height == height) return slot;
+		}
+		return null;
+	}
+	
+	/*
+	 * released buffers of a single size
+	 */
+	private static class Slot<B>
+	{
+		private final int width;
+		private final int height;
+		private final ArrayDeque<B> free = new ArrayDeque<B>();
+		
+		private Slot(int width, int height)
+		{
+			this.width = width;
+			this.height = height;
+		}
+	}
+}
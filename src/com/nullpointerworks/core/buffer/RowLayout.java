@@ -0,0 +1,40 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+/**
+ * This enumeration contains the ways a buffer places its rows in its
+ * content array. Items include; PACKED and ALIGNED.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public enum RowLayout
+{
+	/**
+	 * Rows are stored back to back. The row stride equals
+	 * the width of the buffer.
+	 * @since 1.1.0
+	 */
+	PACKED,
+	/**
+	 * Each row is padded to a multiple of 64 bytes, the size of a
+	 * cache line. Rows start at the same alignment as the first row,
+	 * so no two rows share a cache line. The alignment of the array
+	 * itself is up to the virtual machine.
+	 * @since 1.1.0
+	 */
+	ALIGNED;
+
+	/*
+	 * the row stride for the given width and element size in bytes
+	 */
+	int stride(int width, int size)
+	{
+		if (this == PACKED) return width;
+		int perLine = 64 / size;
+		return Math.addExact(width, perLine-1) / perLine * perLine;
+	}
+}
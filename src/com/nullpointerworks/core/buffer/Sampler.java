@@ -0,0 +1,183 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+/**
+ * Samples ARGB textures held in an {@code IntBuffer}. Texture coordinates
+ * outside of the texture are handled according to the {@code AddressMode},
+ * so any UV value is safe to sample. Texels are read according to the
+ * {@code FilterMode}.
+ * <p>
+ * Internally all coordinates are in 16.16 fixed-point texel space. Use
+ * {@code span(...)} to texture a run of pixels with incremental fixed-point
+ * stepping, which avoids any float to int conversion per pixel. Fixed-point
+ * coordinates limit the texture space to 32768 texels in each direction.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public class Sampler
+{
+	private final AddressMode address;
+	private final FilterMode filter;
+
+	/**
+	 * Creates a sampler with the given addressing and filtering modes.
+	 * @param address - how to handle coordinates outside of the texture
+	 * @param filter - how to read the texels around a coordinate
+	 * @since 1.1.0
+	 */
+	public Sampler(AddressMode address, FilterMode filter)
+	{
+		this.address = address;
+		this.filter = filter;
+	}
+
+	/**
+	 * Returns the addressing mode of this sampler.
+	 * @return the addressing mode of this sampler
+	 * @since 1.1.0
+	 */
+	public AddressMode getAddressMode()
+	{
+		return address;
+	}
+
+	/**
+	 * Returns the filtering mode of this sampler.
+	 * @return the filtering mode of this sampler
+	 * @since 1.1.0
+	 */
+	public FilterMode getFilterMode()
+	{
+		return filter;
+	}
+
+	/**
+	 * Take a value from the texture at the specified UV mapping
+	 * coordinates. A factor of 0 lies on the left or top edge of the
+	 * texture, a factor of 1 on the right or bottom edge.
+	 * @param texture - the ARGB texture to sample
+	 * @param u - a factor along the width of the texture
+	 * @param v - a factor along the height of the texture
+	 * @return the sampled ARGB color
+	 * @since 1.1.0
+	 */
+	public int sample(IntBuffer texture, float u, float v)
+	{
+		int fu = (int)(u * texture.getWidth() * 65536f);
+		int fv = (int)(v * texture.getHeight() * 65536f);
+		return sampleFixed(texture, fu, fv);
+	}
+
+	/**
+	 * Take a value from the texture at the specified fixed-point texel
+	 * coordinates. The coordinates are in 16.16 format, where 1 equals
+	 * {@code 0x10000}, and measure texels from the top left corner.
+	 * @param texture - the ARGB texture to sample
+	 * @param u - the 16.16 texel coordinate along the width of the texture
+	 * @param v - the 16.16 texel coordinate along the height of the texture
+	 * @return the sampled ARGB color
+	 * @since 1.1.0
+	 */
+	public int sampleFixed(IntBuffer texture, int u, int v)
+	{
+		int[] texels = texture.content();
+		int w = texture.getWidth();
+		int h = texture.getHeight();
+		int base = texture.getOffset();
+		int stride = texture.getStride();
+
+		if (filter == FilterMode.NEAREST)
+		{
+			int x = wrap(u>>16, w);
+			int y = wrap(v>>16, h);
+			return texels[base + x + y*stride];
+		}
+
+		u -= 0x8000;
+		v -= 0x8000;
+		int x0 = u>>16;
+		int y0 = v>>16;
+		int fx = (u>>8) & 0xFF;
+		int fy = (v>>8) & 0xFF;
+		int x1 = wrap(x0+1, w);
+		int y1 = base + wrap(y0+1, h) * stride;
+		x0 = wrap(x0, w);
+		y0 = base + wrap(y0, h) * stride;
+
+		int top = lerp(texels[x0+y0], texels[x1+y0], fx);
+		int bottom = lerp(texels[x0+y1], texels[x1+y1], fx);
+		return lerp(top, bottom, fy);
+	}
+
+	/**
+	 * Samples a run of pixels along a straight line through texture space
+	 * and stores them in the given array. The UV coordinates are
+	 * interpolated linearly in 16.16 fixed-point, so perspective correct
+	 * spans should be split into short runs by the caller.
+	 * @param texture - the ARGB texture to sample
+	 * @param u0 - a factor along the width of the texture for the first pixel
+	 * @param v0 - a factor along the height of the texture for the first pixel
+	 * @param u1 - a factor along the width of the texture past the last pixel
+	 * @param v1 - a factor along the height of the texture past the last pixel
+	 * @param dst - the array to store the sampled colors in
+	 * @param offset - the index in the array of the first pixel
+	 * @param count - the amount of pixels to sample
+	 * @since 1.1.0
+	 */
+	public void span(IntBuffer texture, float u0, float v0, float u1, float v1, int[] dst, int offset, int count)
+	{
+		if (count < 1) return;
+		float sw = texture.getWidth() * 65536f;
+		float sh = texture.getHeight() * 65536f;
+		int fu = (int)(u0 * sw);
+		int fv = (int)(v0 * sh);
+		int du = (int)((u1 - u0) * sw / count);
+		int dv = (int)((v1 - v0) * sh / count);
+
+		for (int i=offset, e=offset+count; i<e; i++)
+		{
+			dst[i] = sampleFixed(texture, fu, fv);
+			fu += du;
+			fv += dv;
+		}
+	}
+
+	/*
+	 * map a texel coordinate onto the texture according to the addressing mode
+	 */
+	private int wrap(int x, int size)
+	{
+		if (x >= 0 && x < size) return x;
+		switch (address)
+		{
+		case CLAMP:
+			return (x < 0)? 0: size-1;
+
+		case MIRROR:
+			int period = size<<1;
+			int m = x % period;
+			if (m < 0) m += period;
+			return (m < size)? m: period-1-m;
+
+		default:
+			int r = x % size;
+			return (r < 0)? r+size: r;
+		}
+	}
+
+	/*
+	 * blend two ARGB colors with an 8 bit weight. the red and blue, and
+	 * the alpha and green channels are blended in pairs
+	 */
+	private static int lerp(int a, int b, int f)
+	{
+		int g = 256 - f;
+		int rb = (((a & 0x00FF00FF) * g + (b & 0x00FF00FF) * f) >>> 8) & 0x00FF00FF;
+		int ag = ((((a>>>8) & 0x00FF00FF) * g + ((b>>>8) & 0x00FF00FF) * f) >>> 8) & 0x00FF00FF;
+		return (ag << 8) | rb;
+	}
+}
@@ -0,0 +1,243 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer.concurrency;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.nullpointerworks.core.buffer.IntBuffer;
+
+/**
+ * Splits the rendering of an {@code IntBuffer} across multiple threads.
+ * The buffer is divided into tiles or rows that are handed to a kernel
+ * exactly once. Since no two threads write to the same tile or row, a
+ * plain {@code IntBuffer} can be used without any locking. All methods
+ * return once every tile or row has been rendered, at which point all
+ * writes made by the kernels are visible to the calling thread. An
+ * interrupt does not cut the wait short, the interrupt status of the
+ * calling thread is restored once the work is done.
+ * <pre>
+ * Parallel.parallelForTiles(frame, 64, 64, (buffer, x, y, w, h) -&gt;
+ * {
+ *     buffer.fillRect(x, y, w, h, 0xFF000000);
+ * });
+ * </pre>
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public final class Parallel
+{
+	/**
+	 * The assumed size of a cache line in bytes.
+	 * @since 1.1.0
+	 */
+	public static final int CACHE_LINE = 64;
+	private static final int INTS_PER_LINE = CACHE_LINE / Integer.BYTES;
+
+	private Parallel()
+	{}
+
+	/**
+	 * Renders the buffer tile by tile on the common {@code ForkJoinPool}.
+	 * The tile width is rounded up to a whole amount of cache lines, see
+	 * {@code alignTileWidth(int)}. Tiles on the right and bottom edges are
+	 * cut off at the edge of the buffer.
+	 * @param buffer - the buffer to render
+	 * @param tileW - the preferred width of a tile
+	 * @param tileH - the height of a tile
+	 * @param kernel - the kernel that renders each tile
+	 * @since 1.1.0
+	 */
+	public static void parallelForTiles(IntBuffer buffer, int tileW, int tileH, TileKernel kernel)
+	{
+		parallelForTiles(buffer, tileW, tileH, kernel, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Renders the buffer tile by tile on the given executor. When the
+	 * executor is a {@code ForkJoinPool} the work is split recursively,
+	 * otherwise it's divided in a few chunks per available processor.
+	 * The tile width is rounded up to a whole amount of cache lines, see
+	 * {@code alignTileWidth(int)}. Tiles on the right and bottom edges are
+	 * cut off at the edge of the buffer.
+	 * @param buffer - the buffer to render
+	 * @param tileW - the preferred width of a tile
+	 * @param tileH - the height of a tile
+	 * @param kernel - the kernel that renders each tile
+	 * @param executor - the executor to run the kernels on
+	 * @since 1.1.0
+	 */
+	public static void parallelForTiles(IntBuffer buffer, int tileW, int tileH, TileKernel kernel, Executor executor)
+	{
+		final int width = buffer.getWidth();
+		final int height = buffer.getHeight();
+		final int tw = alignTileWidth(tileW);
+		final int th = (tileH<1)? 1: tileH;
+		final int cols = (width + tw - 1) / tw;
+		final int rows = (height + th - 1) / th;
+
+		run(cols*rows, executor, (lo, hi) ->
+		{
+			for (int t=lo; t<hi; t++)
+			{
+				int x = (t % cols) * tw;
+				int y = (t / cols) * th;
+				kernel.render(buffer, x, y, Math.min(tw, width-x), Math.min(th, height-y));
+			}
+		});
+	}
+
+	/**
+	 * Renders the buffer row by row on the common {@code ForkJoinPool}.
+	 * Neighbouring rows are grouped together in a single task, which
+	 * keeps threads from sharing cache lines except at band borders.
+	 * @param buffer - the buffer to render
+	 * @param kernel - the kernel that renders each row
+	 * @since 1.1.0
+	 */
+	public static void parallelForRows(IntBuffer buffer, RowKernel kernel)
+	{
+		parallelForRows(buffer, kernel, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Renders the buffer row by row on the given executor. When the
+	 * executor is a {@code ForkJoinPool} the work is split recursively,
+	 * otherwise it's divided in a few chunks per available processor.
+	 * Neighbouring rows are grouped together in a single task, which
+	 * keeps threads from sharing cache lines except at band borders.
+	 * @param buffer - the buffer to render
+	 * @param kernel - the kernel that renders each row
+	 * @param executor - the executor to run the kernels on
+	 * @since 1.1.0
+	 */
+	public static void parallelForRows(IntBuffer buffer, RowKernel kernel, Executor executor)
+	{
+		run(buffer.getHeight(), executor, (lo, hi) ->
+		{
+			for (int y=lo; y<hi; y++)
+			{
+				kernel.render(buffer, y);
+			}
+		});
+	}
+
+	/**
+	 * Rounds the given tile width up to a whole amount of cache lines.
+	 * When the rows of a buffer start on a cache line, tiles of this
+	 * width never share a cache line with the tile next to them.
+	 * @param tileW - the preferred width of a tile in pixels
+	 * @return the tile width rounded up to a whole amount of cache lines
+	 * @since 1.1.0
+	 */
+	public static int alignTileWidth(int tileW)
+	{
+		if (tileW < INTS_PER_LINE) return INTS_PER_LINE;
+		return (tileW + INTS_PER_LINE - 1) & -INTS_PER_LINE;
+	}
+
+	// ==========================================
+
+	/*
+	 * a range of work items to process
+	 */
+	private interface Range
+	{
+		void run(int lo, int hi);
+	}
+
+	/*
+	 * run the range [0,count) on the given executor and wait for it to complete
+	 */
+	private static void run(int count, Executor executor, Range range)
+	{
+		if (count < 1) return;
+
+		if (executor instanceof ForkJoinPool)
+		{
+			ForkJoinPool pool = (ForkJoinPool)executor;
+			int grain = Math.max(1, count / (pool.getParallelism()*4));
+			pool.invoke(new Split(range, 0, count, grain));
+			return;
+		}
+
+		int chunks = Math.min(count, Runtime.getRuntime().availableProcessors()*4);
+		CountDownLatch latch = new CountDownLatch(chunks);
+		AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+		for (int c=0; c<chunks; c++)
+		{
+			final int lo = (int)((long)count * c / chunks);
+			final int hi = (int)((long)count * (c+1) / chunks);
+			executor.execute(() ->
+			{
+				try
+				{
+					range.run(lo, hi);
+				}
+				catch (Throwable t)
+				{
+					error.compareAndSet(null, t);
+				}
+				finally
+				{
+					latch.countDown();
+				}
+			});
+		}
+
+		boolean interrupted = false;
+		while (true)
+		{
+			try
+			{
+				latch.await();
+				break;
+			}
+			catch (InterruptedException e)
+			{
+				interrupted = true;
+			}
+		}
+		if (interrupted) Thread.currentThread().interrupt();
+
+		Throwable t = error.get();
+		if (t instanceof RuntimeException) throw (RuntimeException)t;
+		if (t instanceof Error) throw (Error)t;
+	}
+
+	/*
+	 * recursively splits a range until it's small enough to process
+	 */
+	private static class Split extends RecursiveAction
+	{
+		private static final long serialVersionUID = 6095742118452911373L;
+		private final Range range;
+		private final int lo, hi, grain;
+
+		private Split(Range range, int lo, int hi, int grain)
+		{
+			this.range = range;
+			this.lo = lo;
+			this.hi = hi;
+			this.grain = grain;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (hi - lo <= grain)
+			{
+				range.run(lo, hi);
+				return;
+			}
+			int mid = (lo + hi) >>> 1;
+			invokeAll(new Split(range, lo, mid, grain), new Split(range, mid, hi, grain));
+		}
+	}
+}
@@ -0,0 +1,28 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer.concurrency;
+
+import com.nullpointerworks.core.buffer.IntBuffer;
+
+/**
+ * A unit of work that renders a single row of an {@code IntBuffer}. 
+ * Each row is handed out by {@code Parallel} exactly once, so a kernel 
+ * may write to its own row without locking.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ * @see Parallel
+ */
+@FunctionalInterface
+public interface RowKernel
+{
+	/**
+	 * Renders the given row of the buffer.
+	 * @param buffer - the buffer being rendered
+	 * @param y - the row to render
+	 * @since 1.1.0
+	 */
+	void render(IntBuffer buffer, int y);
+}
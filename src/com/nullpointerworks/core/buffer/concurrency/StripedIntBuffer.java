@@ -0,0 +1,336 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer.concurrency;
+
+import com.nullpointerworks.core.buffer.IntBuffer;
+import com.nullpointerworks.core.buffer.IntRowOperator;
+import com.nullpointerworks.core.buffer.RowLayout;
+
+/**
+ * A thread safe implementation of the {@code IntBuffer} that locks bands of 
+ * rows instead of the whole buffer. Each band of rows has its own lock, 
+ * so threads that write to different bands never wait on each other. 
+ * Operations that span multiple bands lock one band at a time. They are 
+ * atomic within each band, but not across the whole buffer. Views share 
+ * the locks of the buffer they were made from.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+public class StripedIntBuffer extends IntBuffer
+{
+	private static final int DEFAULT_ROWS = 16;
+	private Object[] stripes;
+	private int shift;
+	private int rowBase;
+	
+	/**
+	 * Creates a buffer with the given dimensions. Each 
+	 * element of this buffer will be defaulted to 0. 
+	 * Each band of 16 rows shares a lock.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @since 1.1.0
+	 */
+	public StripedIntBuffer(int width, int height) 
+	{
+		super(width, height);
+		createStripes(DEFAULT_ROWS);
+	}
+	
+	/**
+	 * Creates a buffer with the given dimensions and 
+	 * initial value. Each band of 16 rows shares a lock.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @param init - the initial value
+	 * @since 1.1.0
+	 */
+	public StripedIntBuffer(int width, int height, int init) 
+	{
+		super(width, height);
+		createStripes(DEFAULT_ROWS);
+		clear(init);
+	}
+	
+	/**
+	 * Creates a buffer with the given dimensions, initial value 
+	 * and band height. The band height is rounded up to a power 
+	 * of two. Smaller bands allow more threads to write at the 
+	 * same time, at the cost of more locks.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @param init - the initial value
+	 * @param rows - the amount of rows that share a lock
+	 * @since 1.1.0
+	 */
+	public StripedIntBuffer(int width, int height, int init, int rows) 
+	{
+		super(width, height);
+		createStripes(rows);
+		clear(init);
+	}
+	
+	/**
+	 * Creates a buffer with the given dimensions that uses the 
+	 * given array as its content. The array is not copied. 
+	 * Each band of 16 rows shares a lock.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @param array - the array to use as content
+	 * @since 1.1.0
+	 */
+	public StripedIntBuffer(int width, int height, int[] array) 
+	{
+		super(width, height, array);
+		createStripes(DEFAULT_ROWS);
+	}
+	
+	/**
+	 * Creates a buffer with the given dimensions, initial value, 
+	 * band height and row layout. The band height is rounded up to 
+	 * a power of two. With aligned rows, no two bands share a cache 
+	 * line.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @param init - the initial value
+	 * @param rows - the amount of rows that share a lock
+	 * @param layout - the way the rows are placed in the content array
+	 * @since 1.1.0
+	 */
+	public StripedIntBuffer(int width, int height, int init, int rows, RowLayout layout) 
+	{
+		super(width, height, layout);
+		createStripes(rows);
+		clear(init);
+	}
+	
+	/*
+	 * a view that shares the content and locks of the parent
+	 */
+	private StripedIntBuffer(StripedIntBuffer parent, int x, int y, int w, int h) 
+	{
+		super(w, h, parent.content());
+		setView(parent, x, y);
+		stripes = parent.stripes;
+		shift = parent.shift;
+		rowBase = offset / stride;
+	}
+	
+	/**
+	 * Returns the amount of rows that share a lock.
+	 * @return the amount of rows that share a lock
+	 * @since 1.1.0
+	 */
+	public int getBandHeight()
+	{
+		return 1<<shift;
+	}
+	
+	// ==========================================
+	
+	public void clear(int value) 
+	{
+		fillRect(0, 0, width, height, value);
+	}
+	
+	public int[] content() 
+	{
+		return super.content();
+	}
+	
+	public StripedIntBuffer copy()
+	{
+		int[] array = super.content();
+		int cs = view? width: stride;
+		int[] copy = new int[cs*height];
+		for (int y1=0; y1<height;)
+		{
+			int y2 = next(y1, height);
+			synchronized (stripe(y1))
+			{
+				for (; y1<y2; y1++)
+				{
+					System.arraycopy(array, offset+y1*stride, copy, y1*cs, width);
+				}
+			}
+		}
+		StripedIntBuffer buff = new StripedIntBuffer(width, height, copy);
+		buff.stride = cs;
+		buff.createStripes(1<<shift);
+		return buff;
+	}
+	
+	public StripedIntBuffer view(int x, int y, int w, int h)
+	{
+		return new StripedIntBuffer(this, x, y, w, h);
+	}
+	
+	// ==========================================
+	
+	public int grab(int index)
+	{
+		synchronized (stripes[(index / stride)>>shift])
+		{
+			return super.grab(index);
+		}
+	}
+	
+	public int grab(int x, int y)
+	{
+		synchronized (stripe(y))
+		{
+			return super.grab(x, y);
+		}
+	}
+	
+	public int grab(float u, float v, float w)
+	{
+		int y = (int)(0.999f*w*v*height);
+		synchronized (stripe(y))
+		{
+			return super.grab(u, v, w);
+		}
+	}
+	
+	// ==========================================
+	
+	public void plot(int[] values)
+	{
+		int[] array = super.content();
+		int l = Math.min(values.length, length);
+		for (int y1=0, s=0; s<l;)
+		{
+			int y2 = next(y1, height);
+			synchronized (stripe(y1))
+			{
+				for (; y1<y2 && s<l; y1++, s+=width)
+				{
+					System.arraycopy(values, s, array, offset+y1*stride, Math.min(width, l-s));
+				}
+			}
+		}
+	}
+	
+	public void plot(int index, int value)
+	{
+		synchronized (stripes[(index / stride)>>shift])
+		{
+			super.plot(index, value);
+		}
+	}
+	
+	public void plot(int x, int y, int value)
+	{
+		synchronized (stripe(y))
+		{
+			super.plot(x, y, value);
+		}
+	}
+	
+	// ==========================================
+	
+	public void fillRect(int x, int y, int w, int h, int value)
+	{
+		for (int y1=y, e=y+h; y1<e;)
+		{
+			int y2 = next(y1, e);
+			synchronized (stripe(y1))
+			{
+				super.fillRect(x, y1, w, y2-y1, value);
+			}
+			y1 = y2;
+		}
+	}
+	
+	public void blit(IntBuffer src, int sx, int sy, int w, int h, int dx, int dy)
+	{
+		if (src == this)
+		{
+			copyRegion(sx, sy, w, h, dx, dy);
+			return;
+		}
+		for (int y1=dy, e=dy+h; y1<e;)
+		{
+			int y2 = next(y1, e);
+			synchronized (stripe(y1))
+			{
+				super.blit(src, sx, sy+y1-dy, w, y2-y1, dx, y1);
+			}
+			y1 = y2;
+		}
+	}
+	
+	public void copyRegion(int sx, int sy, int w, int h, int dx, int dy)
+	{
+		if (dy > sy)
+		{
+			for (int r=h-1; r>=0; r--) copyRow(sx, sy+r, w, dx, dy+r);
+			return;
+		}
+		for (int r=0; r<h; r++) copyRow(sx, sy+r, w, dx, dy+r);
+	}
+	
+	public void apply(int x, int y, int w, int h, IntRowOperator op)
+	{
+		if (w < 1) return;
+		for (int y1=y, e=y+h; y1<e;)
+		{
+			int y2 = next(y1, e);
+			synchronized (stripe(y1))
+			{
+				for (; y1<y2; y1++) op.apply(values, index(x,y1), y1-y);
+			}
+		}
+	}
+	
+	// ==========================================
+	
+	/*
+	 * create a lock for each band of rows. the locks are padded 
+	 * so that neighbouring locks do not share a cache line
+	 */
+	private void createStripes(int rows)
+	{
+		shift = (rows<2)? 0: 32 - Integer.numberOfLeadingZeros(rows-1);
+		rowBase = 0;
+		int bands = (height + (1<<shift) - 1) >> shift;
+		stripes = new Object[(bands<1)?1:bands];
+		for (int b=0, l=stripes.length; b<l; b++) stripes[b] = new long[8];
+	}
+	
+	/*
+	 * the lock of the band the given row is in
+	 */
+	private Object stripe(int y)
+	{
+		return stripes[(y+rowBase)>>shift];
+	}
+	
+	/*
+	 * the first row after the given row that starts a new band, 
+	 * but no further than the given limit
+	 */
+	private int next(int y, int limit)
+	{
+		return Math.min(limit, ((((y+rowBase)>>shift)+1)<<shift) - rowBase);
+	}
+	
+	/*
+	 * copy a single row, holding the locks of both bands in order
+	 */
+	private void copyRow(int sx, int sy, int w, int dx, int dy)
+	{
+		int a = (Math.min(sy, dy)+rowBase)>>shift;
+		int b = (Math.max(sy, dy)+rowBase)>>shift;
+		synchronized (stripes[a])
+		{
+			synchronized (stripes[b])
+			{
+				super.copyRegion(sx, sy, w, 1, dx, dy);
+			}
+		}
+	}
+}
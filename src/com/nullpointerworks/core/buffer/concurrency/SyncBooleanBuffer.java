@@ -6,15 +6,30 @@
 package com.nullpointerworks.core.buffer.concurrency;
 
 import com.nullpointerworks.core.buffer.BooleanBuffer;
+import com.nullpointerworks.core.buffer.RowLayout;
 
 /**
- * A thread safe implementation of the {@code BooleanBuffer}.
+ * A thread safe implementation of the {@code BooleanBuffer}. Views 
+ * share the lock of the buffer they were made from.
+ * <p>
+ * A snapshot may share the content array of the buffer it was taken 
+ * from, until the buffer is next written to. The snapshot is then given 
+ * a copy of the array. The buffer itself keeps its array, so arrays 
+ * handed out by {@code content()} stay valid. The write methods of a 
+ * snapshot throw an {@code UnsupportedOperationException}.
  * @author Michiel Drost - Nullpointer Works
  * @since 1.0.0
  */
 public class SyncBooleanBuffer extends BooleanBuffer
 {
 	private SyncBooleanBuffer lock = this;
+	private BooleanBuffer reader;
+	private BooleanBuffer spare;
+	private SyncBooleanBuffer sharer;
+	private SyncBooleanBuffer origin;
+	private boolean snapshot = false;
+	private boolean viewed = false;
+	private boolean exposed = false;
 
 	/**
 	 * Creates a buffer with the given dimensions. Each 
@@ -41,12 +56,40 @@ public class SyncBooleanBuffer extends BooleanBuffer
 		super(width, height, init);
 	}
 
+	/**
+	 * Creates a buffer with the given dimensions that uses the 
+	 * given array as its content. The array is not copied.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @param array - the array to use as content
+	 * @since 1.1.0
+	 */
+	public SyncBooleanBuffer(int width, int height, boolean[] array) 
+	{
+		super(width, height, array);
+	}
+	
+	/**
+	 * Creates a buffer with the given dimensions and row 
+	 * layout. Each element of this buffer will be defaulted 
+	 * to false.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @param layout - the way the rows are placed in the content array
+	 * @since 1.1.0
+	 */
+	public SyncBooleanBuffer(int width, int height, RowLayout layout) 
+	{
+		super(width, height, layout);
+	}
+	
 	// ==========================================
 	
 	public void clear(boolean value) 
 	{
 		synchronized (lock)
 		{
+			unshare();
 			super.clear(value);
 		}
 	}
@@ -55,6 +98,8 @@ public class SyncBooleanBuffer extends BooleanBuffer
 	{
 		synchronized (lock)
 		{
+			copyShared();
+			exposed = true;
 			return super.content();
 		}
 	}
@@ -63,17 +108,107 @@ public class SyncBooleanBuffer extends BooleanBuffer
 	{
 		synchronized (lock)
 		{
-			SyncBooleanBuffer buff = new SyncBooleanBuffer(width,height);
-			buff.plot(super.content());
+			BooleanBuffer copy = super.copy();
+			SyncBooleanBuffer buff = new SyncBooleanBuffer(width, height, copy.content());
+			buff.stride = copy.getStride();
+			return buff;
+		}
+	}
+	
+	public SyncBooleanBuffer view(int x, int y, int w, int h)
+	{
+		synchronized (lock)
+		{
+			copyShared();
+			viewed = true;
+			SyncBooleanBuffer buff = new SyncBooleanBuffer(w, h, super.content());
+			buff.setView(this, x, y);
+			buff.lock = lock;
+			buff.snapshot = snapshot;
 			return buff;
 		}
 	}
 	
+	/**
+	 * Returns a read only copy of this buffer. The snapshot shares the 
+	 * content array and the lock of this buffer, and is given its own 
+	 * copy of the array when this buffer is next written to. The content 
+	 * is copied right away instead if this buffer is a view, has views, 
+	 * has handed out its content array, or already shares it with a 
+	 * snapshot. The write methods of a snapshot throw an 
+	 * {@code UnsupportedOperationException}.
+	 * @return a read only copy of this buffer
+	 * @since 1.1.0
+	 */
+	public SyncBooleanBuffer snapshot()
+	{
+		synchronized (lock)
+		{
+			if (view || viewed || exposed || snapshot || sharer != null)
+			{
+				SyncBooleanBuffer buff = copy();
+				buff.snapshot = true;
+				return buff;
+			}
+			SyncBooleanBuffer buff = new SyncBooleanBuffer(width, height, super.content());
+			buff.stride = stride;
+			buff.snapshot = true;
+			buff.lock = lock;
+			buff.origin = this;
+			sharer = buff;
+			return buff;
+		}
+	}
+	
+	/**
+	 * Copies the content of this buffer onto the given buffer. Nothing 
+	 * is copied if the dimensions of the buffers differ. A plain 
+	 * {@code BooleanBuffer} is copied onto while holding the lock of this 
+	 * buffer, without allocating. Any other buffer may take locks of 
+	 * its own, so the content is first copied to a spare buffer that's 
+	 * kept for the next call, and copied onto the destination after the 
+	 * lock is released.
+	 * @param dest - the buffer to copy the content onto
+	 * @since 1.1.0
+	 */
+	public void copyInto(BooleanBuffer dest)
+	{
+		if (dest == this || dest.getWidth() != width || dest.getHeight() != height) return;
+		BooleanBuffer source;
+		synchronized (lock)
+		{
+			if (reader == null || reader.content() != super.content())
+			{
+				reader = super.view(0, 0, width, height);
+			}
+			if (dest.getClass() == BooleanBuffer.class)
+			{
+				dest.blit(reader, 0, 0, width, height, 0, 0);
+				return;
+			}
+			source = spare;
+			spare = null;
+			if (source == null) source = new BooleanBuffer(width, height);
+			source.blit(reader, 0, 0, width, height, 0, 0);
+		}
+		dest.blit(source, 0, 0, width, height, 0, 0);
+		synchronized (lock)
+		{
+			if (spare == null && reader != null) spare = source;
+		}
+	}
+	
 	public void free()
 	{
 		synchronized (lock)
 		{
+			if (sharer != null) sharer.origin = null;
+			if (origin != null) origin.sharer = null;
 			super.free();
+			reader = null;
+			spare = null;
+			sharer = null;
+			origin = null;
 		}
 	}
 	
@@ -109,6 +244,7 @@ public class SyncBooleanBuffer extends BooleanBuffer
 	{
 		synchronized (lock)
 		{
+			unshare();
 			super.plot(values);
 		}
 	}
@@ -117,6 +253,7 @@ public class SyncBooleanBuffer extends BooleanBuffer
 	{
 		synchronized (lock)
 		{
+			unshare();
 			super.plot(index, value);
 		}
 	}
@@ -125,7 +262,69 @@ public class SyncBooleanBuffer extends BooleanBuffer
 	{
 		synchronized (lock)
 		{
+			unshare();
 			super.plot(x, y, value);
 		}
 	}
+	
+	// ==========================================
+	
+	public void fillRect(int x, int y, int w, int h, boolean value)
+	{
+		synchronized (lock)
+		{
+			unshare();
+			super.fillRect(x, y, w, h, value);
+		}
+	}
+	
+	public void blit(BooleanBuffer src, int sx, int sy, int w, int h, int dx, int dy)
+	{
+		synchronized (lock)
+		{
+			unshare();
+			super.blit(src, sx, sy, w, h, dx, dy);
+		}
+	}
+	
+	public void copyRegion(int sx, int sy, int w, int h, int dx, int dy)
+	{
+		synchronized (lock)
+		{
+			unshare();
+			super.copyRegion(sx, sy, w, h, dx, dy);
+		}
+	}
+	
+	// ==========================================
+	
+	/*
+	 * make sure no snapshot still shares the content array 
+	 * before this buffer is written to
+	 */
+	private void unshare()
+	{
+		if (snapshot) throw new UnsupportedOperationException("A snapshot of a SyncBooleanBuffer is read only");
+		copyShared();
+	}
+	
+	/*
+	 * end the sharing of the content array with a snapshot. The 
+	 * snapshot is given the copy, this buffer keeps its array
+	 */
+	private void copyShared()
+	{
+		if (sharer != null)
+		{
+			sharer.values = values.clone();
+			sharer.origin = null;
+			sharer = null;
+		}
+		if (origin != null)
+		{
+			values = values.clone();
+			origin.sharer = null;
+			origin = null;
+		}
+	}
 }
\ No newline at end of file
@@ -6,15 +6,31 @@
 package com.nullpointerworks.core.buffer.concurrency;
 
 import com.nullpointerworks.core.buffer.IntBuffer;
+import com.nullpointerworks.core.buffer.IntRowOperator;
+import com.nullpointerworks.core.buffer.RowLayout;
 
 /**
- * A thread safe implementation of the {@code IntBuffer}.
+ * A thread safe implementation of the {@code IntBuffer}. Views 
+ * share the lock of the buffer they were made from.
+ * <p>
+ * A snapshot may share the content array of the buffer it was taken 
+ * from, until the buffer is next written to. The snapshot is then given 
+ * a copy of the array. The buffer itself keeps its array, so arrays 
+ * handed out by {@code content()} stay valid. The write methods of a 
+ * snapshot throw an {@code UnsupportedOperationException}.
  * @author Michiel Drost - Nullpointer Works
  * @since 1.0.0
  */
 public class SyncIntBuffer extends IntBuffer
 {
 	private SyncIntBuffer lock = this;
+	private IntBuffer reader;
+	private IntBuffer spare;
+	private SyncIntBuffer sharer;
+	private SyncIntBuffer origin;
+	private boolean snapshot = false;
+	private boolean viewed = false;
+	private boolean exposed = false;
 
 	/**
 	 * Creates a buffer with the given dimensions. Each 
@@ -41,12 +57,40 @@ public class SyncIntBuffer extends IntBuffer
 		super(width, height, init);
 	}
 
+	/**
+	 * Creates a buffer with the given dimensions that uses the 
+	 * given array as its content. The array is not copied.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @param array - the array to use as content
+	 * @since 1.1.0
+	 */
+	public SyncIntBuffer(int width, int height, int[] array) 
+	{
+		super(width, height, array);
+	}
+	
+	/**
+	 * Creates a buffer with the given dimensions and row 
+	 * layout. Each element of this buffer will be defaulted 
+	 * to 0.
+	 * @param width - the width of the buffer
+	 * @param height - the height of the buffer
+	 * @param layout - the way the rows are placed in the content array
+	 * @since 1.1.0
+	 */
+	public SyncIntBuffer(int width, int height, RowLayout layout) 
+	{
+		super(width, height, layout);
+	}
+	
 	// ==========================================
 	
 	public void clear(int value) 
 	{
 		synchronized (lock)
 		{
+			unshare();
 			super.clear(value);
 		}
 	}
@@ -55,6 +99,8 @@ public class SyncIntBuffer extends IntBuffer
 	{
 		synchronized (lock)
 		{
+			copyShared();
+			exposed = true;
 			return super.content();
 		}
 	}
@@ -63,17 +109,107 @@ public class SyncIntBuffer extends IntBuffer
 	{
 		synchronized (lock)
 		{
-			SyncIntBuffer buff = new SyncIntBuffer(width,height);
-			buff.plot(super.content());
+			IntBuffer copy = super.copy();
+			SyncIntBuffer buff = new SyncIntBuffer(width, height, copy.content());
+			buff.stride = copy.getStride();
+			return buff;
+		}
+	}
+	
+	public SyncIntBuffer view(int x, int y, int w, int h)
+	{
+		synchronized (lock)
+		{
+			copyShared();
+			viewed = true;
+			SyncIntBuffer buff = new SyncIntBuffer(w, h, super.content());
+			buff.setView(this, x, y);
+			buff.lock = lock;
+			buff.snapshot = snapshot;
 			return buff;
 		}
 	}
 	
+	/**
+	 * Returns a read only copy of this buffer. The snapshot shares the 
+	 * content array and the lock of this buffer, and is given its own 
+	 * copy of the array when this buffer is next written to. The content 
+	 * is copied right away instead if this buffer is a view, has views, 
+	 * has handed out its content array, or already shares it with a 
+	 * snapshot. The write methods of a snapshot throw an 
+	 * {@code UnsupportedOperationException}.
+	 * @return a read only copy of this buffer
+	 * @since 1.1.0
+	 */
+	public SyncIntBuffer snapshot()
+	{
+		synchronized (lock)
+		{
+			if (view || viewed || exposed || snapshot || sharer != null)
+			{
+				SyncIntBuffer buff = copy();
+				buff.snapshot = true;
+				return buff;
+			}
+			SyncIntBuffer buff = new SyncIntBuffer(width, height, super.content());
+			buff.stride = stride;
+			buff.snapshot = true;
+			buff.lock = lock;
+			buff.origin = this;
+			sharer = buff;
+			return buff;
+		}
+	}
+	
+	/**
+	 * Copies the content of this buffer onto the given buffer. Nothing 
+	 * is copied if the dimensions of the buffers differ. A plain 
+	 * {@code IntBuffer} is copied onto while holding the lock of this 
+	 * buffer, without allocating. Any other buffer may take locks of 
+	 * its own, so the content is first copied to a spare buffer that's 
+	 * kept for the next call, and copied onto the destination after the 
+	 * lock is released.
+	 * @param dest - the buffer to copy the content onto
+	 * @since 1.1.0
+	 */
+	public void copyInto(IntBuffer dest)
+	{
+		if (dest == this || dest.getWidth() != width || dest.getHeight() != height) return;
+		IntBuffer source;
+		synchronized (lock)
+		{
+			if (reader == null || reader.content() != super.content())
+			{
+				reader = super.view(0, 0, width, height);
+			}
+			if (dest.getClass() == IntBuffer.class)
+			{
+				dest.blit(reader, 0, 0, width, height, 0, 0);
+				return;
+			}
+			source = spare;
+			spare = null;
+			if (source == null) source = new IntBuffer(width, height);
+			source.blit(reader, 0, 0, width, height, 0, 0);
+		}
+		dest.blit(source, 0, 0, width, height, 0, 0);
+		synchronized (lock)
+		{
+			if (spare == null && reader != null) spare = source;
+		}
+	}
+	
 	public void free()
 	{
 		synchronized (lock)
 		{
+			if (sharer != null) sharer.origin = null;
+			if (origin != null) origin.sharer = null;
 			super.free();
+			reader = null;
+			spare = null;
+			sharer = null;
+			origin = null;
 		}
 	}
 	
@@ -109,6 +245,7 @@ public class SyncIntBuffer extends IntBuffer
 	{
 		synchronized (lock)
 		{
+			unshare();
 			super.plot(values);
 		}
 	}
@@ -117,6 +254,7 @@ public class SyncIntBuffer extends IntBuffer
 	{
 		synchronized (lock)
 		{
+			unshare();
 			super.plot(index, value);
 		}
 	}
@@ -125,7 +263,78 @@ public class SyncIntBuffer extends IntBuffer
 	{
 		synchronized (lock)
 		{
+			unshare();
 			super.plot(x, y, value);
 		}
 	}
+	
+	// ==========================================
+	
+	public void fillRect(int x, int y, int w, int h, int value)
+	{
+		synchronized (lock)
+		{
+			unshare();
+			super.fillRect(x, y, w, h, value);
+		}
+	}
+	
+	public void blit(IntBuffer src, int sx, int sy, int w, int h, int dx, int dy)
+	{
+		synchronized (lock)
+		{
+			unshare();
+			super.blit(src, sx, sy, w, h, dx, dy);
+		}
+	}
+	
+	public void copyRegion(int sx, int sy, int w, int h, int dx, int dy)
+	{
+		synchronized (lock)
+		{
+			unshare();
+			super.copyRegion(sx, sy, w, h, dx, dy);
+		}
+	}
+	
+	public void apply(int x, int y, int w, int h, IntRowOperator op)
+	{
+		synchronized (lock)
+		{
+			unshare();
+			super.apply(x, y, w, h, op);
+		}
+	}
+	
+	// ==========================================
+	
+	/*
+	 * make sure no snapshot still shares the content array 
+	 * before this buffer is written to
+	 */
+	private void unshare()
+	{
+		if (snapshot) throw new UnsupportedOperationException("A snapshot of a SyncIntBuffer is read only");
+		copyShared();
+	}
+	
+	/*
+	 * end the sharing of the content array with a snapshot. The 
+	 * snapshot is given the copy, this buffer keeps its array
+	 */
+	private void copyShared()
+	{
+		if (sharer != null)
+		{
+			sharer.values = values.clone();
+			sharer.origin = null;
+			sharer = null;
+		}
+		if (origin != null)
+		{
+			values = values.clone();
+			origin.sharer = null;
+			origin = null;
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer.concurrency;
+
+import com.nullpointerworks.core.buffer.IntBuffer;
+
+/**
+ * A unit of work that renders a single rectangular tile of an 
+ * {@code IntBuffer}. Tiles handed out by {@code Parallel} never 
+ * overlap, so a kernel may write to its own tile without locking.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ * @see Parallel
+ */
+@FunctionalInterface
+public interface TileKernel
+{
+	/**
+	 * Renders the given tile of the buffer.
+	 * @param buffer - the buffer being rendered
+	 * @param x - the left side of the tile
+	 * @param y - the top side of the tile
+	 * @param w - the width of the tile
+	 * @param h - the height of the tile
+	 * @since 1.1.0
+	 */
+	void render(IntBuffer buffer, int x, int y, int w, int h);
+}
@@ -0,0 +1,104 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Component;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that swaps on an {@code AsyncCanvas} never wait forever.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+class AsyncCanvasTest
+{
+	@Test
+	void blockedSwapReturnsWhenTheCanvasThrows() throws InterruptedException
+	{
+		DrawCanvas failing = new TestCanvas()
+		{
+			@Override
+			public void swap(int[] pixels)
+			{
+				throw new IllegalStateException("present failed");
+			}
+		};
+		AsyncCanvas canvas = new AsyncCanvas(failing, 2, PresentPolicy.BLOCK);
+		assertTrue(swapAll(canvas, 10));
+	}
+	
+	@Test
+	void blockedSwapReturnsOnDispose() throws InterruptedException
+	{
+		CountDownLatch release = new CountDownLatch(1);
+		DrawCanvas stalled = new TestCanvas()
+		{
+			@Override
+			public void swap(int[] pixels)
+			{
+				try
+				{
+					release.await();
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		AsyncCanvas canvas = new AsyncCanvas(stalled, 2, PresentPolicy.BLOCK);
+		Thread producer = new Thread(() -> { for (int i=0; i<10; i++) canvas.swap(new int[4]); });
+		producer.setDaemon(true);
+		producer.start();
+		producer.join(200);
+		assertTrue(producer.isAlive());
+		canvas.dispose();
+		producer.join(TimeUnit.SECONDS.toMillis(10));
+		assertFalse(producer.isAlive());
+		release.countDown();
+	}
+	
+	/*
+	 * swaps the given amount of frames on another thread, true if it finishes
+	 */
+	private static boolean swapAll(AsyncCanvas canvas, int frames) throws InterruptedException
+	{
+		Thread producer = new Thread(() -> { for (int i=0; i<frames; i++) canvas.swap(new int[4]); });
+		producer.setDaemon(true);
+		producer.start();
+		producer.join(TimeUnit.SECONDS.toMillis(10));
+		return !producer.isAlive();
+	}
+	
+	/*
+	 * a 2 by 2 canvas without a component
+	 */
+	private static abstract class TestCanvas implements DrawCanvas
+	{
+		@Override
+		public int width()
+		{
+			return 2;
+		}
+		
+		@Override
+		public int height()
+		{
+			return 2;
+		}
+		
+		@Override
+		public Component component()
+		{
+			return null;
+		}
+	}
+}
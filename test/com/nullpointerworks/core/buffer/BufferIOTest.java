@@ -0,0 +1,89 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.zip.Deflater;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests reading malformed {@code BufferIO} streams.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+class BufferIOTest
+{
+	@Test
+	void roundTrip() throws IOException
+	{
+		LongBuffer buffer = new LongBuffer(33, 17);
+		for (int i=0; i<buffer.getLength(); i++) buffer.plot(i, i * 0x100000001L);
+		for (boolean compress : new boolean[] {false, true})
+		{
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			BufferIO.write(buffer, Channels.newChannel(out), compress);
+			LongBuffer read = BufferIO.readLongBuffer(channel(out.toByteArray()));
+			assertArrayEquals(buffer.content(), read.content());
+		}
+	}
+	
+	@Test
+	void hugeDimensionsAreRejected()
+	{
+		byte[] data = header(4, 0, 1<<20, 1<<20).array();
+		assertThrows(IOException.class, () -> BufferIO.readIntBuffer(channel(data)));
+		byte[] wide = header(8, 1, Integer.MAX_VALUE/8, 1).array();
+		assertThrows(IOException.class, () -> BufferIO.readDoubleBuffer(channel(wide)));
+	}
+	
+	@Test
+	void oversizedBlockIsRejected()
+	{
+		java.nio.ByteBuffer data = java.nio.ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN);
+		data.put(header(4, 1, 2, 2)).putInt(Integer.MAX_VALUE);
+		assertThrows(IOException.class, () -> BufferIO.readIntBuffer(channel(data.array())));
+	}
+	
+	@Test
+	void blockNeedingADictionaryIsRejected()
+	{
+		Deflater deflater = new Deflater();
+		deflater.setDictionary(new byte[] {1, 2, 3, 4});
+		deflater.setInput(new byte[16]);
+		deflater.finish();
+		byte[] block = new byte[64];
+		int n = deflater.deflate(block);
+		deflater.end();
+		
+		java.nio.ByteBuffer data = java.nio.ByteBuffer.allocate(20 + n).order(ByteOrder.LITTLE_ENDIAN);
+		data.put(header(4, 1, 2, 2)).putInt(n).put(block, 0, n);
+		assertThrows(IOException.class, () -> BufferIO.readIntBuffer(channel(data.array())));
+	}
+	
+	/*
+	 * a header for the given element type and dimensions
+	 */
+	private static java.nio.ByteBuffer header(int type, int flags, int width, int height)
+	{
+		java.nio.ByteBuffer header = java.nio.ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(0x4257504E).put((byte)1).put((byte)type).put((byte)flags).put((byte)0);
+		header.putInt(width).putInt(height).flip();
+		return header;
+	}
+	
+	private static ReadableByteChannel channel(byte[] data)
+	{
+		return Channels.newChannel(new ByteArrayInputStream(data));
+	}
+}
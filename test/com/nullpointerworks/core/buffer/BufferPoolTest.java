@@ -0,0 +1,85 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests which releases the {@code BufferPool} takes back.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+class BufferPoolTest
+{
+	@Test
+	void releasedBufferIsReused()
+	{
+		BufferPool pool = new BufferPool();
+		IntBuffer buffer = pool.obtainInt(8, 8);
+		pool.release(buffer);
+		assertSame(buffer, pool.obtainInt(8, 8));
+	}
+	
+	@Test
+	void doubleReleaseIsIgnored()
+	{
+		BufferPool pool = new BufferPool();
+		IntBuffer buffer = pool.obtainInt(8, 8);
+		pool.release(buffer);
+		pool.release(buffer);
+		IntBuffer first = pool.obtainInt(8, 8);
+		IntBuffer second = pool.obtainInt(8, 8);
+		assertSame(buffer, first);
+		assertNotSame(first, second);
+	}
+	
+	@Test
+	void foreignBuffersAreIgnored()
+	{
+		BufferPool pool = new BufferPool();
+		BufferPool other = new BufferPool();
+		IntBuffer created = new IntBuffer(8, 8);
+		pool.release(created);
+		pool.release(other.obtainInt(8, 8));
+		IntBuffer buffer = pool.obtainInt(8, 8);
+		assertNotSame(created, buffer);
+		
+		other.clear();
+		IntBuffer before = other.obtainInt(4, 4);
+		other.clear();
+		other.release(before);
+		assertNotSame(before, other.obtainInt(4, 4));
+	}
+	
+	@Test
+	void poolIsCapped()
+	{
+		BufferPool pool = new BufferPool(1);
+		FloatBuffer a = pool.obtainFloat(2, 2);
+		FloatBuffer b = pool.obtainFloat(2, 2);
+		pool.release(a);
+		pool.release(b);
+		assertSame(a, pool.obtainFloat(2, 2));
+		assertNotSame(b, pool.obtainFloat(2, 2));
+	}
+	
+	@Test
+	void unreleasedBufferIsForgotten() throws InterruptedException
+	{
+		BufferPool pool = new BufferPool();
+		WeakReference<IntBuffer> ref = new WeakReference<IntBuffer>(pool.obtainInt(64, 64));
+		for (int i=0; i<50 && ref.get() != null; i++)
+		{
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(ref.get());
+	}
+}
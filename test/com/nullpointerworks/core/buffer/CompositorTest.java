@@ -0,0 +1,61 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.nullpointerworks.core.buffer.concurrency.SyncIntBuffer;
+
+/**
+ * Tests compositing onto buffer subclasses.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+class CompositorTest
+{
+	@Test
+	void compositeMarksDirtyRegions()
+	{
+		DirtyIntBuffer dst = new DirtyIntBuffer(16, 16, 0xFF000000);
+		dst.clearDirty();
+		IntBuffer src = new IntBuffer(4, 4, 0xFFFF0000);
+		Compositor.composite(src, 0, 0, 4, 4, dst, 2, 3, BlendMode.SRC_OVER);
+		assertTrue(dst.isDirty());
+		assertEquals(0xFFFF0000, dst.grab(5, 6));
+		assertEquals(0xFF000000, dst.grab(6, 6));
+	}
+	
+	@Test
+	void compositeOntoAnEpochBuffer()
+	{
+		EpochIntBuffer dst = new EpochIntBuffer(100, 4);
+		dst.clear(0xFF000010);
+		Compositor.composite(new IntBuffer(100, 4, 0xFF000001), dst, BlendMode.ADD);
+		assertEquals(0xFF000011, dst.grab(99, 3));
+		dst.clear(0);
+		assertEquals(0, dst.grab(99, 3));
+	}
+	
+	@Test
+	void compositeOntoASyncBufferIsAtomic() throws InterruptedException
+	{
+		SyncIntBuffer dst = new SyncIntBuffer(8, 8);
+		IntBuffer src = new IntBuffer(8, 8, 0xFF000001);
+		Thread[] threads = new Thread[4];
+		for (int t=0; t<threads.length; t++)
+		{
+			threads[t] = new Thread(() -> 
+			{
+				for (int i=0; i<50; i++) Compositor.composite(src, dst, BlendMode.ADD);
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) thread.join();
+		assertEquals(200, dst.grab(7, 7) & 0xFF);
+	}
+}
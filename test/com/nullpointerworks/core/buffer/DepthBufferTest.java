@@ -0,0 +1,117 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the fused depth test and the hierarchical tile bounds of the
+ * {@code DepthBuffer}.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+class DepthBufferTest
+{
+	@Test
+	void testAndSetKeepsTheNearestDepth()
+	{
+		DepthBuffer depth = new DepthBuffer(4, 4);
+		assertTrue(depth.testAndSet(1, 2, 0.5f));
+		assertFalse(depth.testAndSet(1, 2, 0.75f));
+		assertTrue(depth.testAndSet(1, 2, 0.25f));
+		assertEquals(0.25f, depth.grab(1, 2));
+		assertFalse(depth.test(1, 2, 0.25f));
+	}
+	
+	@Test
+	void spanPassesOnlyTheNearerFragments()
+	{
+		DepthBuffer depth = new DepthBuffer(20, 2, 1f);
+		assertEquals(10, depth.testAndSetSpan(0, 0, 20, 0f, 0.1f));
+		for (int x=0; x<10; x++) assertEquals(0.1f*x, depth.grab(x, 0), 1e-6f);
+		for (int x=10; x<20; x++) assertEquals(1f, depth.grab(x, 0));
+		
+		boolean[] mask = new boolean[20];
+		assertEquals(0, depth.testSpan(0, 1, 20, 1f, 0f, mask));
+		assertEquals(20, depth.testSpan(0, 1, 20, 0.5f, 0f, mask));
+		for (boolean pass : mask) assertTrue(pass);
+	}
+	
+	@Test
+	void spanBehindATileIsRejected()
+	{
+		DepthBuffer depth = new DepthBuffer(16, 16);
+		depth.clear(0.5f);
+		assertEquals(0, depth.testAndSetSpan(0, 3, 16, 0.75f, 0f));
+		assertEquals(16, depth.testAndSetSpan(0, 3, 16, 0.25f, 0f));
+		assertEquals(0.25f, depth.grab(15, 3));
+		assertEquals(0.5f, depth.grab(15, 4));
+	}
+	
+	@Test
+	void occlusionFollowsTheTileBounds()
+	{
+		DepthBuffer depth = new DepthBuffer(13, 11);
+		assertFalse(depth.isOccluded(0, 0, 13, 11, 1000f));
+		
+		depth.clear(0.5f);
+		assertTrue(depth.isOccluded(0, 0, 13, 11, 0.5f));
+		assertFalse(depth.isOccluded(0, 0, 13, 11, 0.25f));
+		
+		depth.plot(12, 10, 0.75f);
+		assertFalse(depth.isOccluded(8, 8, 5, 3, 0.6f));
+		assertTrue(depth.isOccluded(0, 0, 8, 8, 0.6f));
+		assertTrue(depth.isSpanOccluded(0, 10, 8, 0.6f));
+		assertFalse(depth.isSpanOccluded(0, 10, 13, 0.6f));
+		
+		depth.fillRect(8, 8, 5, 3, 0.5f);
+		assertTrue(depth.isOccluded(8, 8, 5, 3, 0.6f));
+		assertTrue(depth.isOccluded(0, 0, 0, 0, 0f));
+	}
+	
+	@Test
+	void writesThroughTheContentArrayAreSeen()
+	{
+		DepthBuffer depth = new DepthBuffer(16, 16);
+		depth.clear(0.5f);
+		float[] array = depth.content();
+		array[0] = 2f;
+		assertFalse(depth.isOccluded(0, 0, 8, 8, 1f));
+		assertEquals(1, depth.testAndSetSpan(0, 0, 1, 1f, 0f));
+		assertEquals(1f, depth.grab(0, 0));
+	}
+	
+	@Test
+	void writesThroughAViewWidenTheBounds()
+	{
+		DepthBuffer depth = new DepthBuffer(16, 16);
+		depth.clear(0.5f);
+		FloatBuffer view = depth.view(8, 8, 8, 8);
+		view.fillRect(0, 0, 8, 8, 2f);
+		assertEquals(2f, depth.grab(15, 15));
+		assertFalse(depth.isOccluded(8, 8, 8, 8, 1f));
+		assertTrue(depth.isOccluded(0, 0, 8, 8, 1f));
+		assertEquals(8, depth.testAndSetSpan(8, 8, 8, 1f, 0f));
+	}
+	
+	@Test
+	void copyIsIndependent()
+	{
+		DepthBuffer depth = new DepthBuffer(16, 16);
+		depth.clear(0.5f);
+		depth.testAndSet(3, 3, 0.25f);
+		DepthBuffer copy = depth.copy();
+		assertEquals(0.25f, copy.grab(3, 3));
+		assertTrue(copy.isOccluded(0, 0, 16, 16, 0.5f));
+		
+		depth.plot(3, 3, 0.75f);
+		assertEquals(0.25f, copy.grab(3, 3));
+		assertFalse(depth.isOccluded(0, 0, 8, 8, 0.6f));
+		assertTrue(copy.isOccluded(0, 0, 8, 8, 0.6f));
+	}
+}
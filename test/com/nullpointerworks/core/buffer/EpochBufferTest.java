@@ -0,0 +1,139 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Field;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the epoch cleared {@code EpochIntBuffer} and {@code EpochFloatBuffer}.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+class EpochBufferTest
+{
+	@Test
+	void clearIsSeenByEveryRead()
+	{
+		EpochIntBuffer buffer = new EpochIntBuffer(100, 3, 7);
+		assertEquals(7, buffer.grab(99, 2));
+		buffer.plot(50, 1, 1);
+		buffer.clear(9);
+		for (int i=0; i<buffer.getLength(); i++) assertEquals(9, buffer.grab(i));
+		for (int value : buffer.content()) assertEquals(9, value);
+	}
+	
+	@Test
+	void writeRefreshesOnlyItsTile()
+	{
+		EpochIntBuffer buffer = new EpochIntBuffer(100, 3);
+		buffer.clear(4);
+		buffer.plot(3, 0, 8);
+		buffer.fillRect(70, 1, 10, 2, 6);
+		assertEquals(8, buffer.grab(3, 0));
+		assertEquals(4, buffer.grab(2, 0));
+		assertEquals(4, buffer.grab(63, 0));
+		assertEquals(6, buffer.grab(79, 2));
+		assertEquals(4, buffer.grab(80, 2));
+		assertEquals(4, buffer.grab(69, 1));
+		
+		buffer.clear(5);
+		assertEquals(5, buffer.grab(3, 0));
+		assertEquals(5, buffer.grab(79, 2));
+	}
+	
+	@Test
+	void blitAndCopyRegionReadThroughTheEpoch()
+	{
+		EpochIntBuffer buffer = new EpochIntBuffer(100, 3);
+		buffer.clear(2);
+		buffer.plot(0, 0, 3);
+		buffer.copyRegion(0, 0, 2, 1, 90, 2);
+		assertEquals(3, buffer.grab(90, 2));
+		assertEquals(2, buffer.grab(91, 2));
+		
+		IntBuffer target = new IntBuffer(100, 3);
+		target.blit(buffer, 0, 0, 100, 3, 0, 0);
+		assertEquals(3, target.grab(0, 0));
+		assertEquals(2, target.grab(99, 1));
+		
+		buffer.blit(new IntBuffer(2, 2, 1), 0, 0, 2, 2, 40, 1);
+		assertEquals(1, buffer.grab(41, 2));
+		assertEquals(2, buffer.grab(42, 2));
+	}
+	
+	@Test
+	void viewReadsThroughTheEpoch()
+	{
+		EpochIntBuffer buffer = new EpochIntBuffer(100, 3);
+		buffer.clear(2);
+		IntBuffer view = buffer.view(60, 1, 10, 2);
+		assertEquals(2, view.grab(0, 0));
+		view.plot(9, 1, 5);
+		assertEquals(5, buffer.grab(69, 2));
+		assertEquals(2, buffer.grab(70, 2));
+		buffer.clear(1);
+		assertEquals(1, view.grab(9, 1));
+	}
+	
+	@Test
+	void epochWrapsAround() throws ReflectiveOperationException
+	{
+		EpochIntBuffer buffer = new EpochIntBuffer(100, 3);
+		setEpoch(buffer, Integer.MAX_VALUE - 1);
+		buffer.clear(3);
+		buffer.plot(5, 7);
+		assertEquals(3, buffer.grab(4));
+		buffer.clear(4);
+		for (int i=0; i<buffer.getLength(); i++) assertEquals(4, buffer.grab(i));
+		buffer.plot(6, 9);
+		assertEquals(4, buffer.grab(5));
+		assertEquals(9, buffer.grab(6));
+		buffer.clear(8);
+		assertEquals(8, buffer.grab(6));
+		assertEquals(8, buffer.grab(299));
+	}
+	
+	@Test
+	void floatEpochWrapsAround() throws ReflectiveOperationException
+	{
+		EpochFloatBuffer buffer = new EpochFloatBuffer(100, 3);
+		setEpoch(buffer, Integer.MAX_VALUE - 1);
+		buffer.clear(3f);
+		buffer.plot(5, 7f);
+		buffer.clear(4f);
+		for (int i=0; i<buffer.getLength(); i++) assertEquals(4f, buffer.grab(i));
+		for (float value : buffer.content()) assertEquals(4f, value);
+		buffer.plot(6, 9f);
+		buffer.clear(8f);
+		assertEquals(8f, buffer.grab(6));
+	}
+	
+	@Test
+	void copyHoldsTheCurrentValues()
+	{
+		EpochFloatBuffer buffer = new EpochFloatBuffer(100, 3);
+		buffer.clear(1f);
+		buffer.plot(10, 2f);
+		EpochFloatBuffer copy = buffer.copy();
+		buffer.clear(0f);
+		assertEquals(2f, copy.grab(10));
+		assertEquals(1f, copy.grab(11));
+	}
+	
+	/*
+	 * moves the epoch of a buffer close to the end of its range
+	 */
+	private static void setEpoch(Object buffer, int epoch) throws ReflectiveOperationException
+	{
+		Field field = buffer.getClass().getDeclaredField("epoch");
+		field.setAccessible(true);
+		field.setInt(buffer, epoch);
+	}
+}
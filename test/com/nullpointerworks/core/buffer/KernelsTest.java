@@ -0,0 +1,56 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.nullpointerworks.core.buffer.concurrency.StripedIntBuffer;
+
+/**
+ * Tests that the {@code Kernels} write through the bookkeeping of 
+ * buffer subclasses.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+class KernelsTest
+{
+	@Test
+	void multiplyMarksDirtyRegions()
+	{
+		DirtyIntBuffer buffer = new DirtyIntBuffer(16, 16, 0xFFFFFFFF);
+		buffer.clearDirty();
+		Kernels.multiply(buffer.view(4, 4, 4, 4), 0xFF808080);
+		assertTrue(buffer.isDirty());
+		assertEquals(0xFF808080, buffer.grab(4, 4));
+		assertEquals(0xFFFFFFFF, buffer.grab(3, 4));
+	}
+	
+	@Test
+	void multiplyReadsThroughTheEpoch()
+	{
+		EpochIntBuffer buffer = new EpochIntBuffer(100, 2);
+		buffer.clear(0xFFFFFFFF);
+		Kernels.multiply(buffer, 0x80FFFFFF);
+		assertEquals(0x80FFFFFF, buffer.grab(99, 1));
+	}
+	
+	@Test
+	void convertWritesThroughTheStripes()
+	{
+		FloatBuffer src = new FloatBuffer(4, 20, 0.5f);
+		StripedIntBuffer dst = new StripedIntBuffer(4, 20, 0, 8);
+		Kernels.convert(src, dst, 10f);
+		assertEquals(5, dst.grab(3, 19));
+		
+		DirtyIntBuffer dirty = new DirtyIntBuffer(4, 20);
+		dirty.clearDirty();
+		Kernels.convert(src, dirty, 4f);
+		assertEquals(2, dirty.grab(0, 0));
+		assertTrue(dirty.isDirty());
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the file backed {@code MappedFloatBuffer} and {@code MappedShortBuffer}.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+class MappedBufferTest
+{
+	@TempDir
+	Path dir;
+	
+	@Test
+	void clearFillsEveryElement() throws IOException
+	{
+		MappedFloatBuffer buffer = new MappedFloatBuffer(dir.resolve("f.bin"), 100, 123);
+		buffer.plot(5, 7, 3f);
+		buffer.clear(2.5f);
+		for (long i=0; i<buffer.getLength(); i++) assertEquals(2.5f, buffer.grab(i));
+		buffer.free();
+		
+		MappedShortBuffer shorts = new MappedShortBuffer(dir.resolve("s.bin"), 4099, 3);
+		shorts.clear((short)-2);
+		assertEquals((short)-2, shorts.grab(0, 0));
+		assertEquals((short)-2, shorts.grab(4098, 2));
+		shorts.free();
+	}
+	
+	@Test
+	void concurrentFirstTouchSeesOneMapping() throws Exception
+	{
+		MappedFloatBuffer buffer = new MappedFloatBuffer(dir.resolve("c.bin"), 64, 64);
+		Thread[] threads = new Thread[8];
+		for (int t=0; t<threads.length; t++)
+		{
+			final int x = t;
+			threads[t] = new Thread(() -> buffer.plot(x, 0, x+1));
+			threads[t].start();
+		}
+		for (Thread thread : threads) thread.join();
+		for (int x=0; x<threads.length; x++) assertEquals(x+1, buffer.grab(x, 0));
+		buffer.free();
+	}
+}
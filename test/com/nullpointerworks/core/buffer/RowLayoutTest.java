@@ -0,0 +1,109 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.nullpointerworks.core.buffer.concurrency.StripedIntBuffer;
+
+/**
+ * Tests the row stride of buffers with an {@code ALIGNED} row layout.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+class RowLayoutTest
+{
+	@Test
+	void strideIsPaddedToACacheLine()
+	{
+		assertEquals(10, RowLayout.PACKED.stride(10, 4));
+		assertEquals(16, RowLayout.ALIGNED.stride(10, 4));
+		assertEquals(16, RowLayout.ALIGNED.stride(16, 4));
+		assertEquals(32, RowLayout.ALIGNED.stride(17, 4));
+		assertEquals(64, RowLayout.ALIGNED.stride(10, 1));
+		assertEquals(16, RowLayout.ALIGNED.stride(10, 8));
+		assertEquals(0, RowLayout.ALIGNED.stride(0, 4));
+		
+		assertEquals(16, new IntBuffer(10, 3, RowLayout.ALIGNED).getStride());
+		assertEquals(16, new FloatBuffer(10, 3, RowLayout.ALIGNED).getStride());
+		assertEquals(64, new ByteBuffer(10, 3, RowLayout.ALIGNED).getStride());
+		assertEquals(32, new ShortBuffer(10, 3, RowLayout.ALIGNED).getStride());
+		assertEquals(16, new LongBuffer(10, 3, RowLayout.ALIGNED).getStride());
+		assertEquals(16, new DoubleBuffer(10, 3, RowLayout.ALIGNED).getStride());
+		assertEquals(64, new BooleanBuffer(10, 3, RowLayout.ALIGNED).getStride());
+	}
+	
+	@Test
+	void valuesAreStoredThroughTheStride()
+	{
+		IntBuffer buffer = new IntBuffer(10, 3, RowLayout.ALIGNED);
+		assertEquals(48, buffer.content().length);
+		assertEquals(30, buffer.getLength());
+		assertEquals(16 + 2, buffer.index(2, 1));
+		
+		int[] packed = new int[30];
+		for (int i=0; i<30; i++) packed[i] = i+1;
+		buffer.plot(packed);
+		assertEquals(13, buffer.grab(2, 1));
+		assertEquals(13, buffer.content()[buffer.index(2, 1)]);
+		assertEquals(0, buffer.content()[10]);
+		
+		buffer.clear(7);
+		assertEquals(7, buffer.grab(9, 2));
+		assertEquals(0, buffer.content()[15]);
+	}
+	
+	@Test
+	void copyKeepsTheLayout()
+	{
+		IntBuffer buffer = new IntBuffer(10, 3, RowLayout.ALIGNED);
+		buffer.plot(9, 2, 5);
+		IntBuffer copy = buffer.copy();
+		assertEquals(16, copy.getStride());
+		assertEquals(5, copy.grab(9, 2));
+		copy.plot(9, 2, 0);
+		assertEquals(5, buffer.grab(9, 2));
+		
+		IntBuffer packed = new IntBuffer(10, 3);
+		packed.blit(buffer, 0, 0, 10, 3, 0, 0);
+		assertEquals(10, packed.getStride());
+		assertEquals(5, packed.grab(9, 2));
+	}
+	
+	@Test
+	void stripedCopyKeepsTheBandHeight()
+	{
+		StripedIntBuffer buffer = new StripedIntBuffer(10, 32, 3, 8, RowLayout.ALIGNED);
+		assertEquals(8, buffer.getBandHeight());
+		StripedIntBuffer copy = buffer.copy();
+		assertEquals(8, copy.getBandHeight());
+		assertEquals(16, copy.getStride());
+		assertEquals(3, copy.grab(9, 31));
+		
+		StripedIntBuffer viewCopy = buffer.view(1, 1, 4, 4).copy();
+		assertEquals(8, viewCopy.getBandHeight());
+		assertEquals(4, viewCopy.getStride());
+	}
+	
+	@Test
+	void mortonRoundTripOfAnAlignedBuffer()
+	{
+		IntBuffer buffer = new IntBuffer(13, 7, RowLayout.ALIGNED);
+		for (int y=0; y<7; y++)
+		{
+			for (int x=0; x<13; x++) buffer.plot(x, y, x*100 + y);
+		}
+		MortonIntBuffer morton = new MortonIntBuffer(buffer);
+		assertEquals(1204, morton.grab(12, 4));
+		IntBuffer back = morton.toIntBuffer();
+		for (int y=0; y<7; y++)
+		{
+			for (int x=0; x<13; x++) assertEquals(x*100 + y, back.grab(x, y));
+		}
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Rectangle;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import org.junit.jupiter.api.Test;
+
+import com.nullpointerworks.core.buffer.concurrency.StripedIntBuffer;
+import com.nullpointerworks.core.buffer.concurrency.SyncIntBuffer;
+
+/**
+ * Tests the zero-copy views onto the content array of a buffer.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+class ViewTest
+{
+	@Test
+	void indexFollowsOffsetAndStride()
+	{
+		IntBuffer buffer = new IntBuffer(8, 6);
+		IntBuffer view = buffer.view(2, 3, 4, 2);
+		assertTrue(view.isView());
+		assertFalse(buffer.isView());
+		assertEquals(26, view.getOffset());
+		assertEquals(8, view.getStride());
+		assertEquals(26 + 1 + 8, view.index(1, 1));
+		
+		IntBuffer nested = view.view(1, 1, 2, 1);
+		assertEquals(view.index(1, 1), nested.getOffset());
+		assertEquals(8, nested.getStride());
+	}
+	
+	@Test
+	void writesAreSharedBothWays()
+	{
+		IntBuffer buffer = new IntBuffer(8, 6);
+		IntBuffer view = buffer.view(2, 3, 4, 2);
+		view.plot(3, 1, 9);
+		assertEquals(9, buffer.grab(5, 4));
+		buffer.plot(2, 3, 7);
+		assertEquals(7, view.grab(0, 0));
+		assertEquals(7, view.grab(view.index(0, 0)));
+		
+		view.clear(1);
+		int ones = 0;
+		for (int value : buffer.content()) if (value == 1) ones++;
+		assertEquals(8, ones);
+		assertEquals(0, buffer.grab(1, 3));
+		assertEquals(0, buffer.grab(6, 3));
+		assertEquals(0, buffer.grab(2, 5));
+	}
+	
+	@Test
+	void blitBetweenOverlappingViews()
+	{
+		IntBuffer buffer = new IntBuffer(6, 6);
+		for (int i=0; i<36; i++) buffer.plot(i, i);
+		IntBuffer source = buffer.view(0, 0, 4, 4);
+		IntBuffer target = buffer.view(1, 1, 4, 4);
+		target.blit(source, 0, 0, 4, 4, 0, 0);
+		for (int y=0; y<4; y++)
+		{
+			for (int x=0; x<4; x++) assertEquals(x + y*6, buffer.grab(x+1, y+1));
+		}
+		
+		for (int i=0; i<36; i++) buffer.plot(i, i);
+		source.blit(target, 0, 0, 4, 4, 0, 0);
+		for (int y=0; y<4; y++)
+		{
+			for (int x=0; x<4; x++) assertEquals(x+1 + (y+1)*6, buffer.grab(x, y));
+		}
+	}
+	
+	@Test
+	void copyOfAViewIsPackedAndIndependent()
+	{
+		FloatBuffer buffer = new FloatBuffer(8, 6);
+		buffer.plot(5, 4, 2f);
+		FloatBuffer view = buffer.view(2, 3, 4, 2);
+		FloatBuffer copy = view.copy();
+		assertFalse(copy.isView());
+		assertEquals(4, copy.getStride());
+		assertEquals(8, copy.content().length);
+		assertEquals(2f, copy.grab(3, 1));
+		copy.plot(3, 1, 0f);
+		assertEquals(2f, buffer.grab(5, 4));
+	}
+	
+	@Test
+	void concurrentViewsShareTheParent()
+	{
+		SyncIntBuffer sync = new SyncIntBuffer(8, 8);
+		SyncIntBuffer syncView = sync.view(4, 4, 4, 4);
+		syncView.fillRect(0, 0, 2, 2, 3);
+		assertEquals(3, sync.grab(5, 5));
+		assertEquals(0, sync.grab(6, 6));
+		
+		StripedIntBuffer striped = new StripedIntBuffer(8, 8);
+		StripedIntBuffer stripedView = striped.view(2, 1, 4, 6);
+		stripedView.plot(3, 5, 4);
+		assertEquals(4, striped.grab(5, 6));
+		striped.plot(2, 1, 6);
+		assertEquals(6, stripedView.grab(0, 0));
+	}
+	
+	@Test
+	void dirtyViewMarksTheParent()
+	{
+		DirtyIntBuffer buffer = new DirtyIntBuffer(64, 64);
+		buffer.clearDirty();
+		IntBuffer view = buffer.view(10, 20, 8, 8);
+		view.fillRect(1, 2, 3, 4, 5);
+		assertEquals(5, buffer.grab(11, 22));
+		assertTrue(buffer.isDirty());
+		boolean covered = false;
+		for (Rectangle region : buffer.getDirtyRegions())
+		{
+			covered |= region.contains(new Rectangle(11, 22, 3, 4));
+		}
+		assertTrue(covered);
+	}
+	
+	@Test
+	void depthViewLoosensTheParent()
+	{
+		DepthBuffer buffer = new DepthBuffer(16, 16);
+		buffer.clear(0.5f);
+		FloatBuffer view = buffer.view(4, 4, 4, 4);
+		view.plot(0, 0, 2f);
+		assertEquals(2f, buffer.grab(4, 4));
+		assertFalse(buffer.isOccluded(0, 0, 8, 8, 1f));
+	}
+	
+	@Test
+	void bitBufferPacksAView()
+	{
+		BooleanBuffer buffer = new BooleanBuffer(10, 10);
+		buffer.plot(3, 4, true);
+		buffer.plot(6, 5, true);
+		buffer.plot(2, 4, true);
+		BitBuffer bits = new BitBuffer(buffer.view(3, 4, 4, 2));
+		assertEquals(2, bits.cardinality());
+		assertTrue(bits.grab(0, 0));
+		assertTrue(bits.grab(3, 1));
+		assertFalse(bits.grab(1, 0));
+	}
+	
+	@Test
+	void viewSurvivesARoundTrip() throws IOException
+	{
+		IntBuffer buffer = new IntBuffer(40, 40);
+		for (int i=0; i<1600; i++) buffer.plot(i, i*31);
+		IntBuffer view = buffer.view(5, 7, 20, 30);
+		for (boolean compress : new boolean[] {false, true})
+		{
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			BufferIO.write(view, Channels.newChannel(out), compress);
+			IntBuffer read = BufferIO.readIntBuffer(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())));
+			assertEquals(20, read.getWidth());
+			assertEquals(30, read.getHeight());
+			for (int y=0; y<30; y++)
+			{
+				for (int x=0; x<20; x++) assertEquals(view.grab(x, y), read.grab(x, y));
+			}
+		}
+	}
+}
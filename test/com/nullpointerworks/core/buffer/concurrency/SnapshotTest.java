@@ -0,0 +1,169 @@
+/*
+ * This is free and unencumbered software released into the public domain.
+ * <http://unlicense.org/>
+ * Nullpointer Works (2021)
+ */
+package com.nullpointerworks.core.buffer.concurrency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.nullpointerworks.core.buffer.FloatBuffer;
+import com.nullpointerworks.core.buffer.IntBuffer;
+
+/**
+ * Tests the copy-on-write snapshots and {@code copyInto} of the 
+ * synchronized buffers.
+ * @author Michiel Drost - Nullpointer Works
+ * @since 1.1.0
+ */
+class SnapshotTest
+{
+	@Test
+	void snapshotDoesNotSeeLaterWrites()
+	{
+		SyncIntBuffer live = new SyncIntBuffer(4, 4);
+		live.clear(1);
+		SyncIntBuffer snapshot = live.snapshot();
+		live.plot(2, 2, 5);
+		live.fillRect(0, 0, 2, 2, 6);
+		assertEquals(1, snapshot.grab(2, 2));
+		assertEquals(1, snapshot.grab(0, 0));
+		assertEquals(5, live.grab(2, 2));
+		
+		SyncIntBuffer second = live.snapshot();
+		live.clear(0);
+		assertEquals(5, second.grab(2, 2));
+		assertEquals(1, snapshot.grab(2, 2));
+	}
+	
+	@Test
+	void snapshotIsReadOnly()
+	{
+		SyncFloatBuffer snapshot = new SyncFloatBuffer(4, 4).snapshot();
+		assertThrows(UnsupportedOperationException.class, () -> snapshot.plot(0, 0, 1f));
+		assertThrows(UnsupportedOperationException.class, () -> snapshot.clear(1f));
+		assertThrows(UnsupportedOperationException.class, () -> snapshot.fillRect(0, 0, 1, 1, 1f));
+	}
+	
+	@Test
+	void contentArraysAreNotShared()
+	{
+		SyncIntBuffer live = new SyncIntBuffer(4, 4);
+		live.clear(1);
+		SyncIntBuffer snapshot = live.snapshot();
+		snapshot.content()[0] = 9;
+		assertEquals(1, live.grab(0));
+		live.content()[1] = 7;
+		assertEquals(1, snapshot.grab(1));
+		assertNotSame(live.content(), snapshot.content());
+	}
+	
+	@Test
+	void contentHandedOutBeforeTheSnapshot()
+	{
+		SyncIntBuffer live = new SyncIntBuffer(4, 4);
+		int[] array = live.content();
+		SyncIntBuffer snapshot = live.snapshot();
+		array[0] = 42;
+		assertEquals(0, snapshot.grab(0, 0));
+		assertEquals(42, live.grab(0, 0));
+	}
+	
+	@Test
+	void liveArrayIsNeverReplaced()
+	{
+		SyncIntBuffer live = new SyncIntBuffer(4, 4);
+		SyncIntBuffer snapshot = live.snapshot();
+		SyncIntBuffer second = live.snapshot();
+		live.plot(0, 0, 5);
+		live.copyInto(new SyncIntBuffer(4, 4));
+		live.plot(1, 0, 6);
+		int[] array = live.content();
+		SyncIntBuffer third = live.snapshot();
+		live.plot(2, 0, 7);
+		assertSame(array, live.content());
+		assertEquals(7, array[2]);
+		assertEquals(0, snapshot.grab(0, 0));
+		assertEquals(0, second.grab(0, 0));
+		assertEquals(6, third.grab(1, 0));
+		assertEquals(0, third.grab(2, 0));
+	}
+	
+	@Test
+	void snapshotOfAViewIsCopied()
+	{
+		SyncIntBuffer live = new SyncIntBuffer(8, 8);
+		SyncIntBuffer view = live.view(2, 2, 4, 4);
+		view.clear(3);
+		SyncIntBuffer snapshot = view.snapshot();
+		live.clear(0);
+		assertEquals(3, snapshot.grab(0, 0));
+		view.plot(0, 0, 4);
+		assertEquals(4, live.grab(2, 2));
+	}
+	
+	@Test
+	void copyIntoPlainAndSyncBuffers()
+	{
+		SyncFloatBuffer live = new SyncFloatBuffer(4, 4);
+		live.clear(2f);
+		FloatBuffer plain = new FloatBuffer(4, 4);
+		live.copyInto(plain);
+		assertEquals(2f, plain.grab(3, 3));
+		
+		SyncFloatBuffer sync = new SyncFloatBuffer(4, 4);
+		live.copyInto(sync);
+		live.plot(3, 3, 1f);
+		assertEquals(2f, sync.grab(3, 3));
+		assertEquals(1f, live.grab(3, 3));
+		
+		FloatBuffer small = new FloatBuffer(2, 2);
+		live.copyInto(small);
+		assertEquals(0f, small.grab(0, 0));
+	}
+	
+	@Test
+	void copyIntoFromAViewKeepsItAttached()
+	{
+		SyncIntBuffer live = new SyncIntBuffer(8, 8);
+		SyncIntBuffer view = live.view(2, 2, 4, 4);
+		view.clear(3);
+		SyncIntBuffer dest = new SyncIntBuffer(4, 4);
+		view.copyInto(dest);
+		assertEquals(3, dest.grab(3, 3));
+		live.plot(2, 2, 8);
+		assertEquals(8, view.grab(0, 0));
+		assertEquals(3, dest.grab(0, 0));
+	}
+	
+	@Test
+	void crossedCopyIntoDoesNotDeadlock() throws InterruptedException
+	{
+		SyncIntBuffer a = new SyncIntBuffer(64, 64);
+		SyncIntBuffer b = new SyncIntBuffer(64, 64);
+		Thread ab = new Thread(() -> { for (int i=0; i<20000; i++) a.copyInto(b); });
+		Thread ba = new Thread(() -> { for (int i=0; i<20000; i++) b.copyInto(a); });
+		ab.setDaemon(true);
+		ba.setDaemon(true);
+		ab.start();
+		ba.start();
+		ab.join(TimeUnit.SECONDS.toMillis(30));
+		ba.join(TimeUnit.SECONDS.toMillis(30));
+		assertFalse(ab.isAlive());
+		assertFalse(ba.isAlive());
+	}
+	
+	@Test
+	void copyIntoCopiesWhatWasThere()
+	{
+		SyncIntBuffer live = new SyncIntBuffer(16, 16);
+		IntBuffer dest = new SyncIntBuffer(16, 16);
+		for (int i=0; i<16*16; i++) live.plot(i, i);
+		live.copyInto(dest);
+		for (int i=0; i<16*16; i++) assertEquals(i, dest.grab(i));
+	}
+}